@@ -24,6 +24,7 @@
 
 package com.elytradev.architecture.client.gui;
 
+import com.elytradev.architecture.common.network.QueueJobMessage;
 import com.elytradev.architecture.common.network.SelectShapeMessage;
 import com.elytradev.architecture.common.shape.Shape;
 import com.elytradev.architecture.common.shape.ShapePage;
@@ -57,6 +58,9 @@ public class GuiSawbench extends BaseGui.Screen {
     public static int selectedShapeTitleRight = 168;
     public static int materialUsageLeft = 7;
     public static int materialUsageTop = 82;
+    public static int jobQueueTop = 88;
+    // Items queued by right-clicking a shape; shift-right-click clears the queue
+    public static int jobCount = 64;
     public static float shapeMenuScale = 2;
     public static float shapeMenuItemScale = 2;
     public static float shapeMenuItemUSize = 40, shapeMenuItemVSize = 45;
@@ -162,6 +166,14 @@ public class GuiSawbench extends BaseGui.Screen {
             drawString(String.format("%s makes %s", te.materialMultiple(), te.resultMultiple()), 0, 0);
             glPopMatrix();
         }
+        if (!te.jobs.isEmpty()) {
+            TileSawbench.Job job = te.jobs.peek();
+            glPushMatrix();
+            glTranslatef(materialUsageLeft, jobQueueTop, 0);
+            glScalef(0.5f, 0.5f, 1.0f);
+            drawString(String.format("%s queued: %s x%s", te.jobs.size(), job.shape.title, job.count), 0, 0);
+            glPopMatrix();
+        }
     }
 
     @Override
@@ -170,7 +182,7 @@ public class GuiSawbench extends BaseGui.Screen {
             clickPageMenu(x - pageMenuLeft, y - pageMenuTop);
         else if (x >= shapeMenuLeft && y >= shapeMenuTop &&
                 x < shapeMenuLeft + shapeMenuWidth && y < shapeMenuTop + shapeMenuHeight)
-            clickShapeMenu(x - shapeMenuLeft, y - shapeMenuTop);
+            clickShapeMenu(x - shapeMenuLeft, y - shapeMenuTop, btn);
         else
             super.mousePressed(x, y, btn);
     }
@@ -181,12 +193,15 @@ public class GuiSawbench extends BaseGui.Screen {
             sendSelectShape(i, te.selectedSlots[i]);
     }
 
-    void clickShapeMenu(int x, int y) {
+    void clickShapeMenu(int x, int y, int btn) {
         int row = y / shapeMenuCellSize;
         int col = x / shapeMenuCellSize;
         if (row >= 0 && row < shapeMenuRows && col >= 0 && col < shapeMenuCols) {
             int i = row * shapeMenuCols + col;
-            sendSelectShape(te.selectedPage, i);
+            if (btn == 1)
+                new QueueJobMessage(te.selectedPage, i, isShiftKeyDown() ? 0 : jobCount).sendToServer();
+            else
+                sendSelectShape(te.selectedPage, i);
         }
     }
 
@@ -25,16 +25,21 @@
 package com.elytradev.architecture.client.proxy;
 
 import com.elytradev.architecture.client.render.CustomBlockDispatcher;
+import com.elytradev.architecture.client.render.CommandRenderProfile;
 import com.elytradev.architecture.client.render.RenderingManager;
+import com.elytradev.architecture.client.render.ShapeRenderProfiler;
 import com.elytradev.architecture.client.render.model.IArchitectureModel;
 import com.elytradev.architecture.client.render.shape.RenderCladding;
 import com.elytradev.architecture.client.render.shape.RenderWindow;
+import com.elytradev.architecture.client.render.shape.ShapeRenderCache;
 import com.elytradev.architecture.client.render.shape.ShapeRenderDispatch;
 import com.elytradev.architecture.common.ArchitectureContent;
 import com.elytradev.architecture.common.ArchitectureMod;
 import com.elytradev.architecture.common.block.BlockArchitecture;
 import com.elytradev.architecture.common.item.ItemArchitecture;
 import com.elytradev.architecture.common.proxy.CommonProxy;
+import com.elytradev.architecture.common.shape.Shape;
+import com.elytradev.architecture.common.shape.ShapeKind;
 import com.elytradev.concrete.resgen.ConcreteResourcePack;
 import com.elytradev.concrete.resgen.IResourceHolder;
 import net.minecraft.block.Block;
@@ -47,14 +52,21 @@ import net.minecraft.client.renderer.entity.RenderManager;
 import net.minecraft.entity.item.EntityItem;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemBlock;
+import net.minecraftforge.client.ClientCommandHandler;
 import net.minecraftforge.client.event.ModelBakeEvent;
 import net.minecraftforge.client.event.ModelRegistryEvent;
 import net.minecraftforge.client.event.TextureStitchEvent;
 import net.minecraftforge.client.model.ModelLoader;
 import net.minecraftforge.fml.client.registry.RenderingRegistry;
 import net.minecraftforge.fml.common.LoaderState;
+import net.minecraftforge.fml.common.event.FMLInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 public class ClientProxy extends CommonProxy {
 
@@ -65,9 +77,33 @@ public class ClientProxy extends CommonProxy {
     public void preInit(FMLPreInitializationEvent e) {
         super.preInit(e);
 
+        if (preloadModels)
+            preloadModels(getPreloadModelNames());
         RenderWindow.init();
     }
 
+    @Override
+    public void init(FMLInitializationEvent e) {
+        super.init(e);
+
+        ClientCommandHandler.instance.registerCommand(new CommandRenderProfile());
+    }
+
+    @Override
+    public void postInit(FMLPostInitializationEvent e) {
+        super.postInit(e);
+
+        awaitPreloadedModels();
+    }
+
+    protected Set<String> getPreloadModelNames() {
+        Set<String> names = new LinkedHashSet<>(RenderWindow.modelNames());
+        for (Shape shape : Shape.values)
+            if (shape.kind instanceof ShapeKind.Model)
+                names.add(((ShapeKind.Model) shape.kind).getModelName());
+        return names;
+    }
+
     @Override
     public void registerRenderers(LoaderState.ModState state) {
         if (state == LoaderState.ModState.PREINITIALIZED) {
@@ -148,6 +184,8 @@ public class ClientProxy extends CommonProxy {
     @SubscribeEvent
     public void onStitch(TextureStitchEvent.Pre e) {
         RENDERING_MANAGER.clearTextureCache();
+        RENDERING_MANAGER.clearItemModelCache();
+        ShapeRenderCache.invalidateAll();
         for (Block block : ArchitectureContent.registeredBlocks.values())
             RENDERING_MANAGER.registerSprites(0, e.getMap(), block);
 
@@ -155,6 +193,12 @@ public class ClientProxy extends CommonProxy {
             RENDERING_MANAGER.registerSprites(1, e.getMap(), item);
     }
 
+    @SubscribeEvent
+    public void onClientTick(TickEvent.ClientTickEvent e) {
+        if (e.phase == TickEvent.Phase.END)
+            ShapeRenderProfiler.tick();
+    }
+
     @Override
     public void registerHandlers() {
         super.registerHandlers();
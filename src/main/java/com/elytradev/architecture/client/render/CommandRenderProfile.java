@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.client.render;
+
+import com.elytradev.architecture.client.render.ShapeRenderProfiler.Section;
+import com.elytradev.architecture.common.shape.Shape;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Client command controlling ShapeRenderProfiler:
+ * /archprofile on|off|reset|show [count]|dump
+ */
+public class CommandRenderProfile extends CommandBase {
+
+    protected static final String[] ACTIONS = {"on", "off", "reset", "show", "dump"};
+
+    @Override
+    public String getName() {
+        return "archprofile";
+    }
+
+    @Override
+    public String getUsage(ICommandSender sender) {
+        return "/archprofile on|off|reset|show [count]|dump";
+    }
+
+    @Override
+    public int getRequiredPermissionLevel() {
+        return 0;
+    }
+
+    @Override
+    public boolean checkPermission(MinecraftServer server, ICommandSender sender) {
+        return true;
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException {
+        if (args.length < 1)
+            throw new WrongUsageException(getUsage(sender));
+        switch (args[0]) {
+            case "on":
+                ShapeRenderProfiler.enabled = true;
+                message(sender, "Shape render profiling enabled");
+                break;
+            case "off":
+                ShapeRenderProfiler.enabled = false;
+                message(sender, "Shape render profiling disabled");
+                break;
+            case "reset":
+                ShapeRenderProfiler.reset();
+                message(sender, "Shape render profile reset");
+                break;
+            case "show":
+                show(sender, args.length > 1 ? parseInt(args[1], 1) : 10);
+                break;
+            case "dump":
+                ShapeRenderProfiler.dump(ShapeRenderProfiler.dumpFile);
+                message(sender, "Shape render profile written to " + ShapeRenderProfiler.dumpFile.getAbsolutePath());
+                break;
+            default:
+                throw new WrongUsageException(getUsage(sender));
+        }
+    }
+
+    protected void show(ICommandSender sender, int count) {
+        List<Shape> shapes = ShapeRenderProfiler.getShapesByTime();
+        if (shapes.isEmpty())
+            message(sender, "No shapes rendered while profiling");
+        for (Shape shape : shapes.subList(0, Math.min(count, shapes.size()))) {
+            long calls = ShapeRenderProfiler.get(shape, Section.SHAPE, ShapeRenderProfiler.CALLS);
+            message(sender, String.format("%s: %d calls, %d tris, %.1f us/call, %d bytes/call",
+                    shape.name(), calls,
+                    ShapeRenderProfiler.get(shape, Section.SHAPE, ShapeRenderProfiler.TRIANGLES),
+                    ShapeRenderProfiler.get(shape, Section.SHAPE, ShapeRenderProfiler.NANOS) / 1000.0 / calls,
+                    ShapeRenderProfiler.get(shape, Section.SHAPE, ShapeRenderProfiler.BYTES) / calls));
+        }
+    }
+
+    protected void message(ICommandSender sender, String text) {
+        sender.sendMessage(new TextComponentString(text));
+    }
+
+    @Override
+    public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, @Nullable BlockPos targetPos) {
+        if (args.length == 1)
+            return getListOfStringsMatchingLastWord(args, ACTIONS);
+        return Collections.emptyList();
+    }
+
+}
@@ -37,6 +37,9 @@ import com.elytradev.architecture.common.item.ItemArchitecture;
 import com.elytradev.architecture.common.render.ITextureConsumer;
 import com.elytradev.architecture.common.render.ModelSpec;
 import com.elytradev.architecture.legacy.base.ArchitectureModelRenderer;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -52,6 +55,7 @@ import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemBlock;
 import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
@@ -65,6 +69,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import static org.lwjgl.opengl.GL11.GL_SMOOTH;
 
@@ -72,6 +77,7 @@ public class RenderingManager {
 
     protected static Trans3 itemTrans = Trans3.blockCenterSideTurn(0, 2);
     protected static String[] texturePrefixes = {"blocks/", "textures/"};
+    public static int itemModelCacheSize = 1024;
     protected Map<Block, ICustomRenderer> blockRenderers = new HashMap<Block, ICustomRenderer>();
     protected Map<Item, ICustomRenderer> itemRenderers = new HashMap<Item, ICustomRenderer>();
     protected Map<IBlockState, ICustomRenderer> stateRendererCache = new HashMap<IBlockState, ICustomRenderer>();
@@ -79,6 +85,10 @@ public class RenderingManager {
     protected CustomBlockStateMapper blockStateMapper = new CustomBlockStateMapper();
     protected List<IBakedModel> bakedModels = new ArrayList<>();
     protected CustomItemBakedModel itemBakedModel;
+    protected Cache<ItemModelKey, IBakedModel> itemModelCache = CacheBuilder.newBuilder()
+            .maximumSize(itemModelCacheSize)
+            .recordStats()
+            .build();
 
     public List<IBakedModel> getBakedModels() {
         return bakedModels;
@@ -242,6 +252,15 @@ public class RenderingManager {
         textureCache.clear();
     }
 
+    // Baked item models hold sprite UVs, so they must be dropped whenever the atlas is restitched.
+    public void clearItemModelCache() {
+        itemModelCache.invalidateAll();
+    }
+
+    public CacheStats getItemModelCacheStats() {
+        return itemModelCache.stats();
+    }
+
     public static class CustomBlockStateMapper extends DefaultStateMapper {
         @Override
         public ModelResourceLocation getModelResourceLocation(IBlockState state) {
@@ -364,6 +383,17 @@ public class RenderingManager {
 
         @Override
         public IBakedModel handleItemState(IBakedModel originalModel, ItemStack stack, World world, EntityLivingBase entity) {
+            ItemModelKey key = new ItemModelKey(stack);
+            IBakedModel model = itemModelCache.getIfPresent(key);
+            if (model == null) {
+                model = bakeItemModel(stack);
+                if (model != emptyModel)
+                    itemModelCache.put(key.immutableCopy(), model);
+            }
+            return model;
+        }
+
+        protected IBakedModel bakeItemModel(ItemStack stack) {
             Item item = stack.getItem();
             ICustomRenderer rend = itemRenderers.get(item);
             if (rend == null && item instanceof ItemArchitecture) {
@@ -383,6 +413,7 @@ public class RenderingManager {
                     ArchitectureLog.warn("Failed to enable smooth shading for item models, {}", e.getMessage());
                 }
                 RenderTargetBaked target = new RenderTargetBaked();
+                target.setRenderingItem(true);
                 rend.renderItemStack(stack, target, itemTrans);
                 return target.getBakedModel();
             } else
@@ -391,6 +422,53 @@ public class RenderingManager {
 
     }
 
+    /**
+     * Identifies one baked variant of an item: the item, its metadata, its NBT (which carries the
+     * shape id and materials) and the tint applied by the item colour handlers.
+     */
+    protected static class ItemModelKey {
+
+        protected final Item item;
+        protected final int meta;
+        protected final NBTTagCompound tag;
+        protected final int colourMult;
+        private final int hash;
+
+        public ItemModelKey(ItemStack stack) {
+            this(stack.getItem(), stack.getMetadata(), stack.getTagCompound(),
+                    Minecraft.getMinecraft().getItemColors().colorMultiplier(stack, 0));
+        }
+
+        protected ItemModelKey(Item item, int meta, NBTTagCompound tag, int colourMult) {
+            this.item = item;
+            this.meta = meta;
+            this.tag = tag;
+            this.colourMult = colourMult;
+            this.hash = Objects.hash(item, meta, tag, colourMult);
+        }
+
+        // Lookups share the stack's tag, stored keys must not.
+        public ItemModelKey immutableCopy() {
+            return new ItemModelKey(item, meta, tag != null ? tag.copy() : null, colourMult);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof ItemModelKey))
+                return false;
+            ItemModelKey other = (ItemModelKey) obj;
+            return hash == other.hash && item == other.item && meta == other.meta
+                    && colourMult == other.colourMult && Objects.equals(tag, other.tag);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
     public class CustomItemBakedModel extends CustomBakedModel {
 
         protected ItemOverrideList itemOverrideList = new CustomItemRenderOverrideList();
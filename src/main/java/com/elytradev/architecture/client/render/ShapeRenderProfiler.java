@@ -0,0 +1,192 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.client.render;
+
+import com.elytradev.architecture.client.render.target.RenderTargetBase;
+import com.elytradev.architecture.common.ArchitectureLog;
+import com.elytradev.architecture.common.shape.Shape;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in per-shape render statistics: calls, triangles emitted, time and bytes
+ * allocated, for each shape and each instrumented section. Chunk rebuilds run on
+ * several threads, so counters are LongAdders and the shape being rendered is
+ * tracked per thread for sections that do not know it, such as model rendering.
+ */
+public class ShapeRenderProfiler {
+
+    public static boolean enabled = false;
+
+    // Append a snapshot to dumpFile every dumpInterval client ticks, 0 to disable
+    public static int dumpInterval = 0;
+    public static File dumpFile = new File("architecturecraft-render-profile.csv");
+
+    public enum Section {
+        // Whole shape, including the sections below
+        SHAPE,
+        MODEL,
+        ROOF
+    }
+
+    public static final int CALLS = 0, TRIANGLES = 1, NANOS = 2, BYTES = 3, STATS = 4;
+
+    // Indexed by shape ordinal + 1, with 0 for rendering outside of any shape
+    protected static final LongAdder[][] counters = new LongAdder[Shape.values.length + 1][];
+    protected static final ThreadLocal<Shape> currentShape = new ThreadLocal<>();
+    protected static final com.sun.management.ThreadMXBean threadBean = getThreadBean();
+    protected static int ticks;
+
+    static {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder[Section.values().length * STATS];
+            for (int j = 0; j < counters[i].length; j++)
+                counters[i][j] = new LongAdder();
+        }
+    }
+
+    public static class Sample {
+        protected final Section section;
+        protected final Shape shape;
+        protected final Shape outerShape;
+        protected final long triangles;
+        protected final long bytes;
+        protected final long nanos;
+
+        protected Sample(Section section, Shape shape, Shape outerShape, long triangles) {
+            this.section = section;
+            this.shape = shape;
+            this.outerShape = outerShape;
+            this.triangles = triangles;
+            this.bytes = allocatedBytes();
+            this.nanos = System.nanoTime();
+        }
+    }
+
+    // Returns null when profiling is disabled. Pass a null shape to attribute the
+    // section to the shape currently being rendered on this thread.
+    public static Sample begin(Section section, Shape shape, RenderTargetBase target) {
+        if (!enabled)
+            return null;
+        Shape outer = currentShape.get();
+        if (shape != null)
+            currentShape.set(shape);
+        else
+            shape = outer;
+        return new Sample(section, shape, outer, target.getTriangleCount());
+    }
+
+    public static void end(Sample sample, RenderTargetBase target) {
+        if (sample == null)
+            return;
+        long nanos = System.nanoTime() - sample.nanos;
+        long bytes = allocatedBytes() - sample.bytes;
+        currentShape.set(sample.outerShape);
+        LongAdder[] c = counters[sample.shape != null ? sample.shape.ordinal() + 1 : 0];
+        int base = sample.section.ordinal() * STATS;
+        c[base + CALLS].increment();
+        c[base + TRIANGLES].add(target.getTriangleCount() - sample.triangles);
+        c[base + NANOS].add(nanos);
+        if (bytes > 0)
+            c[base + BYTES].add(bytes);
+    }
+
+    protected static com.sun.management.ThreadMXBean getThreadBean() {
+        try {
+            Object bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+                if (threads.isThreadAllocatedMemorySupported()) {
+                    threads.setThreadAllocatedMemoryEnabled(true);
+                    return threads;
+                }
+            }
+        } catch (LinkageError | RuntimeException e) {
+            ArchitectureLog.info("Allocation tracking unavailable for render profiling: {}", e.toString());
+        }
+        return null;
+    }
+
+    protected static long allocatedBytes() {
+        return threadBean != null ? threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    public static long get(Shape shape, Section section, int stat) {
+        return counters[shape != null ? shape.ordinal() + 1 : 0][section.ordinal() * STATS + stat].sum();
+    }
+
+    public static void reset() {
+        for (LongAdder[] c : counters)
+            for (LongAdder a : c)
+                a.reset();
+    }
+
+    // Shapes with any recorded calls, most expensive first
+    public static List<Shape> getShapesByTime() {
+        List<Shape> result = new ArrayList<>();
+        for (Shape shape : Shape.values)
+            if (get(shape, Section.SHAPE, CALLS) > 0)
+                result.add(shape);
+        result.sort((a, b) -> Long.compare(get(b, Section.SHAPE, NANOS), get(a, Section.SHAPE, NANOS)));
+        return result;
+    }
+
+    public static void tick() {
+        if (enabled && dumpInterval > 0 && ++ticks >= dumpInterval) {
+            ticks = 0;
+            dump(dumpFile);
+        }
+    }
+
+    public static void dump(File file) {
+        boolean header = !file.exists();
+        try (PrintWriter out = new PrintWriter(new FileWriter(file, true))) {
+            if (header)
+                out.println("time,shape,section,calls,triangles,nanos,bytes");
+            long time = System.currentTimeMillis();
+            for (int i = 0; i < counters.length; i++) {
+                String name = i > 0 ? Shape.values[i - 1].name() : "NONE";
+                for (Section section : Section.values()) {
+                    int base = section.ordinal() * STATS;
+                    long calls = counters[i][base + CALLS].sum();
+                    if (calls > 0)
+                        out.printf("%d,%s,%s,%d,%d,%d,%d\n", time, name, section, calls,
+                                counters[i][base + TRIANGLES].sum(), counters[i][base + NANOS].sum(),
+                                counters[i][base + BYTES].sum());
+                }
+            }
+        } catch (IOException e) {
+            ArchitectureLog.warn("Unable to write render profile to " + file, e);
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.client.render.model;
+
+import com.elytradev.architecture.common.helpers.Vector3;
+import net.minecraft.util.ResourceLocation;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the packed binary form of objson models produced by the compileShapeModels build task.
+ * <p>
+ * Layout, big-endian: magic, version, 6 double bounds, box count and 6 doubles per box, face count,
+ * then per face its texture, vertex count, 8 floats per vertex, the precomputed face normal,
+ * index count and the triangle indices as unsigned shorts.
+ */
+public class BinaryModelFormat {
+
+    public static final int MAGIC = 0x41434d42; // "ACMB"
+    public static final int VERSION = 1;
+    public static final String JSON_EXTENSION = ".objson";
+    public static final String BINARY_EXTENSION = ".objbin";
+
+    public static ResourceLocation binaryLocation(ResourceLocation jsonLocation) {
+        String path = jsonLocation.getPath();
+        if (!path.endsWith(JSON_EXTENSION))
+            return null;
+        path = path.substring(0, path.length() - JSON_EXTENSION.length()) + BINARY_EXTENSION;
+        return new ResourceLocation(jsonLocation.getNamespace(), path);
+    }
+
+    /**
+     * Returns the packed model for the given objson location, or null if no packed form was built.
+     */
+    public static OBJSONModel fromResource(ResourceLocation jsonLocation) {
+        ResourceLocation location = binaryLocation(jsonLocation);
+        if (location == null)
+            return null;
+        // Can't use resource manager because this needs to work on the server
+        String path = String.format("/assets/%s/%s", location.getNamespace(), location.getPath());
+        InputStream in = BinaryModelFormat.class.getResourceAsStream(path);
+        if (in == null)
+            return null;
+        try (DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+            return read(data);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read model file: " + path, e);
+        }
+    }
+
+    public static OBJSONModel read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC)
+            throw new IOException("Not a packed model");
+        int version = in.readInt();
+        if (version != VERSION)
+            throw new IOException("Unsupported packed model version " + version);
+        OBJSONModel model = new OBJSONModel();
+        model.bounds = readDoubles(in, 6);
+        int numBoxes = in.readInt();
+        model.boxes = new double[numBoxes][];
+        for (int i = 0; i < numBoxes; i++)
+            model.boxes[i] = readDoubles(in, 6);
+        int numFaces = in.readInt();
+        model.faces = new OBJSONModel.Face[numFaces];
+        for (int i = 0; i < numFaces; i++) {
+            int texture = in.readUnsignedByte();
+            int numVertices = in.readInt();
+            float[] data = new float[numVertices * OBJSONModel.Face.STRIDE];
+            for (int j = 0; j < data.length; j++)
+                data[j] = in.readFloat();
+            Vector3 normal = new Vector3(in.readFloat(), in.readFloat(), in.readFloat());
+            int numIndices = in.readInt();
+            int[] indices = new int[numIndices];
+            for (int j = 0; j < numIndices; j++)
+                indices[j] = in.readUnsignedShort();
+            model.faces[i] = new OBJSONModel.Face(texture, data, indices, normal);
+        }
+        return model;
+    }
+
+    private static double[] readDoubles(DataInputStream in, int n) throws IOException {
+        double[] result = new double[n];
+        for (int i = 0; i < n; i++)
+            result[i] = in.readDouble();
+        return result;
+    }
+
+}
@@ -37,4 +37,6 @@ public interface IArchitectureModel {
     void addBoxesToList(Trans3 t, List list);
 
     void render(Trans3 t, RenderTargetBase renderer, int baseColourMult, int secondaryColourMult, ITexture... textures);
+
+    long getResidentBytes();
 }
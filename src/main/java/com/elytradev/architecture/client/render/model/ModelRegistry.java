@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.client.render.model;
+
+import com.elytradev.architecture.common.ArchitectureLog;
+import net.minecraft.util.ResourceLocation;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Load-once cache of models that is safe to use from the chunk render workers.
+ * <p>
+ * Each location maps to a future. The first thread to ask for a model parses it, and any other
+ * thread asking for it meanwhile waits on the same future instead of parsing it again.
+ */
+public class ModelRegistry {
+
+    private final Function<ResourceLocation, IArchitectureModel> loader;
+    private final Map<ResourceLocation, CompletableFuture<IArchitectureModel>> models = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    public ModelRegistry(Function<ResourceLocation, IArchitectureModel> loader) {
+        this.loader = loader;
+    }
+
+    public IArchitectureModel get(ResourceLocation loc) {
+        CompletableFuture<IArchitectureModel> future = models.get(loc);
+        if (future == null) {
+            CompletableFuture<IArchitectureModel> created = new CompletableFuture<>();
+            future = models.putIfAbsent(loc, created);
+            if (future == null) {
+                load(loc, created);
+                future = created;
+            } else
+                hits.increment();
+        } else
+            hits.increment();
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Failed to load model " + loc, e.getCause());
+        }
+    }
+
+    /**
+     * Start loading the model on the given executor unless it is already loaded or being loaded.
+     */
+    public CompletableFuture<IArchitectureModel> preload(ResourceLocation loc, Executor executor) {
+        CompletableFuture<IArchitectureModel> created = new CompletableFuture<>();
+        CompletableFuture<IArchitectureModel> future = models.putIfAbsent(loc, created);
+        if (future != null)
+            return future;
+        executor.execute(() -> load(loc, created));
+        return created;
+    }
+
+    private void load(ResourceLocation loc, CompletableFuture<IArchitectureModel> future) {
+        try {
+            long t0 = System.nanoTime();
+            IArchitectureModel model = loader.apply(loc);
+            long t1 = System.nanoTime();
+            loads.increment();
+            loadNanos.add(t1 - t0);
+            ArchitectureLog.info("Loaded and cached {} in {} nanos.", loc, t1 - t0);
+            future.complete(model);
+        } catch (Throwable e) {
+            // Let a later request try again rather than caching the failure, and never
+            // leave threads waiting on the future
+            models.remove(loc, future);
+            future.completeExceptionally(e);
+            if (e instanceof Error)
+                throw (Error) e;
+        }
+    }
+
+    public int size() {
+        return models.size();
+    }
+
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getLoadNanos() {
+        return loadNanos.sum();
+    }
+
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + loads.sum();
+        return total == 0 ? 1.0 : (double) h / total;
+    }
+
+    /**
+     * Approximate heap used by the models loaded so far.
+     */
+    public long getResidentBytes() {
+        long bytes = 0;
+        for (CompletableFuture<IArchitectureModel> future : models.values()) {
+            IArchitectureModel model = future.getNow(null);
+            if (model != null)
+                bytes += model.getResidentBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d models, %d loads in %.1f ms, hit ratio %.3f, ~%d KiB resident",
+                size(), getLoadCount(), getLoadNanos() / 1e6, getHitRatio(), getResidentBytes() / 1024);
+    }
+
+}
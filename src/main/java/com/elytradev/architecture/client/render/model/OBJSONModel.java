@@ -24,10 +24,14 @@
 
 package com.elytradev.architecture.client.render.model;
 
+import com.elytradev.architecture.client.render.ShapeRenderProfiler;
 import com.elytradev.architecture.client.render.target.RenderTargetBase;
 import com.elytradev.architecture.client.render.texture.ITexture;
+import com.elytradev.architecture.common.helpers.Matrix3;
 import com.elytradev.architecture.common.helpers.Trans3;
 import com.elytradev.architecture.common.helpers.Vector3;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.gson.Gson;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.AxisAlignedBB;
@@ -43,18 +47,33 @@ import java.util.List;
 public class OBJSONModel implements IArchitectureModel {
 
     private static final Gson GSON = new Gson();
+
+    public static long orientedMeshCacheBytes = 32L << 20;
+
+    // Face data rotated into each of the 24 side/turn orientations, evicted least recently used first
+    protected static Cache<OrientationKey, float[][]> orientedMeshCache = CacheBuilder.newBuilder()
+            .maximumWeight(orientedMeshCacheBytes)
+            .weigher((OrientationKey key, float[][] data) -> {
+                int bytes = 0;
+                for (float[] d : data)
+                    bytes += d.length * 4;
+                return bytes;
+            })
+            .build();
+
     public double[] bounds;
     public Face[] faces;
     public double[][] boxes;
+    private transient OrientationKey[] orientationKeys;
 
     public static OBJSONModel fromResource(ResourceLocation location) {
         // Can't use resource manager because this needs to work on the server
         String path = String.format("/assets/%s/%s", location.getNamespace(), location.getPath());
         InputStream in = OBJSONModel.class.getResourceAsStream(path);
-        OBJSONModel model = GSON.fromJson(new InputStreamReader(in), OBJSONModel.class);
         if (in == null)
             throw new RuntimeException("Model file not found: " + path);
-        model.setNormals();
+        OBJSONModel model = GSON.fromJson(new InputStreamReader(in), OBJSONModel.class);
+        model.pack();
         return model;
     }
 
@@ -64,14 +83,11 @@ public class OBJSONModel implements IArchitectureModel {
     }
 
     /**
-     * Add normals to all the faces.
+     * Convert the faces read from json into packed form and add normals to them.
      */
-    private void setNormals() {
-        for (Face face : faces) {
-            double[][] p = face.vertices;
-            int[] t = face.triangles[0];
-            face.normal = Vector3.unit(Vector3.sub(p[t[1]], p[t[0]]).cross(Vector3.sub(p[t[2]], p[t[0]])));
-        }
+    private void pack() {
+        for (Face face : faces)
+            face.pack();
     }
 
     @Override
@@ -89,21 +105,59 @@ public class OBJSONModel implements IArchitectureModel {
 
     @Override
     public void render(Trans3 t, RenderTargetBase target, int baseColourMult, int secondaryColourMult, ITexture... textures) {
-        Vector3 p = null, n = null;
+        ShapeRenderProfiler.Sample sample = ShapeRenderProfiler.begin(ShapeRenderProfiler.Section.MODEL, null, target);
+        renderModel(t, target, baseColourMult, secondaryColourMult, textures);
+        ShapeRenderProfiler.end(sample, target);
+    }
+
+    protected void renderModel(Trans3 t, RenderTargetBase target, int baseColourMult, int secondaryColourMult, ITexture... textures) {
+        int orientation = t.rotation.sideTurnIndex();
+        if (orientation >= 0) {
+            renderOriented(getOrientedData(orientation), t, target, baseColourMult, secondaryColourMult, textures);
+            return;
+        }
+        double[] p = new double[3], n = new double[3];
         for (Face face : faces) {
             ITexture tex = textures[face.texture];
             if (tex != null) {
                 target.setTexture(tex);
                 target.setColor(face.texture > 1 ? secondaryColourMult : baseColourMult);
-                for (int[] tri : face.triangles) {
+                float[] c = face.data;
+                int[] tris = face.indices;
+                for (int k = 0; k < tris.length; k += 3) {
+                    target.beginTriangle();
+                    for (int i = 0; i < 3; i++) {
+                        int j = tris[k + i] * Face.STRIDE;
+                        t.p(c[j], c[j + 1], c[j + 2], p);
+                        t.v(c[j + 3], c[j + 4], c[j + 5], n);
+                        target.setNormal(n[0], n[1], n[2]);
+                        target.addVertex(p[0], p[1], p[2], c[j + 6], c[j + 7]);
+                    }
+                    target.endFace();
+                }
+            }
+        }
+    }
+
+    // Render face data that has already been rotated, so only scaling and translation remain
+    protected void renderOriented(float[][] data, Trans3 t, RenderTargetBase target,
+                                  int baseColourMult, int secondaryColourMult, ITexture... textures) {
+        double s = t.scaling;
+        double ox = t.offset.x, oy = t.offset.y, oz = t.offset.z;
+        for (int f = 0; f < faces.length; f++) {
+            Face face = faces[f];
+            ITexture tex = textures[face.texture];
+            if (tex != null) {
+                target.setTexture(tex);
+                target.setColor(face.texture > 1 ? secondaryColourMult : baseColourMult);
+                float[] c = data[f];
+                int[] tris = face.indices;
+                for (int k = 0; k < tris.length; k += 3) {
                     target.beginTriangle();
                     for (int i = 0; i < 3; i++) {
-                        int j = tri[i];
-                        double[] c = face.vertices[j];
-                        p = t.p(c[0], c[1], c[2]);
-                        n = t.v(c[3], c[4], c[5]);
-                        target.setNormal(n);
-                        target.addVertex(p, c[6], c[7]);
+                        int j = tris[k + i] * Face.STRIDE;
+                        target.setNormal(s * c[j + 3], s * c[j + 4], s * c[j + 5]);
+                        target.addVertex(ox + s * c[j], oy + s * c[j + 1], oz + s * c[j + 2], c[j + 6], c[j + 7]);
                     }
                     target.endFace();
                 }
@@ -111,14 +165,133 @@ public class OBJSONModel implements IArchitectureModel {
         }
     }
 
+    protected float[][] getOrientedData(int orientation) {
+        OrientationKey[] keys = orientationKeys;
+        if (keys == null)
+            orientationKeys = keys = new OrientationKey[24];
+        OrientationKey key = keys[orientation];
+        if (key == null)
+            keys[orientation] = key = new OrientationKey(this, orientation);
+        float[][] data = orientedMeshCache.getIfPresent(key);
+        if (data == null) {
+            data = rotateFaces(Matrix3.sideTurnRotations[orientation / 4][orientation % 4]);
+            orientedMeshCache.put(key, data);
+        }
+        return data;
+    }
+
+    protected float[][] rotateFaces(Matrix3 r) {
+        float[][] result = new float[faces.length][];
+        double[] v = new double[3];
+        for (int f = 0; f < faces.length; f++) {
+            float[] c = faces[f].data;
+            float[] d = c.clone();
+            for (int j = 0; j < c.length; j += Face.STRIDE) {
+                r.mul(c[j], c[j + 1], c[j + 2], v);
+                d[j] = (float) v[0];
+                d[j + 1] = (float) v[1];
+                d[j + 2] = (float) v[2];
+                r.mul(c[j + 3], c[j + 4], c[j + 5], v);
+                d[j + 3] = (float) v[0];
+                d[j + 4] = (float) v[1];
+                d[j + 5] = (float) v[2];
+            }
+            result[f] = d;
+        }
+        return result;
+    }
+
+    @Override
+    public long getResidentBytes() {
+        // Rough figures for a 64-bit VM with compressed oops
+        long bytes = 24 + arrayBytes(bounds.length, 8);
+        if (boxes != null) {
+            bytes += arrayBytes(boxes.length, 4);
+            for (double[] box : boxes)
+                bytes += arrayBytes(box.length, 8);
+        }
+        bytes += arrayBytes(faces.length, 4);
+        for (Face face : faces)
+            bytes += 40 + 40 + arrayBytes(face.data.length, 4) + arrayBytes(face.indices.length, 4);
+        return bytes;
+    }
+
+    private static long arrayBytes(int length, int elementSize) {
+        return (16 + (long) length * elementSize + 7) & ~7;
+    }
+
+    protected static class OrientationKey {
+        // Identity of the model, not equality, is what matters here
+        protected final OBJSONModel model;
+        protected final int orientation;
+
+        protected OrientationKey(OBJSONModel model, int orientation) {
+            this.model = model;
+            this.orientation = orientation;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof OrientationKey))
+                return false;
+            OrientationKey other = (OrientationKey) o;
+            return model == other.model && orientation == other.orientation;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(model) * 31 + orientation;
+        }
+    }
+
     /**
      * Stores info about a given face.
      */
     public static class Face {
+        // x, y, z, nx, ny, nz, u, v
+        public static final int STRIDE = 8;
+
         public int texture;
+        // Only present while a face is being read from json
         double[][] vertices;
         int[][] triangles;
-        Vector3 normal;
+        // Packed vertex data and flattened triangle indices
+        transient float[] data;
+        transient int[] indices;
+        transient Vector3 normal;
+
+        public Face() {
+        }
+
+        public Face(int texture, float[] data, int[] indices, Vector3 normal) {
+            this.texture = texture;
+            this.data = data;
+            this.indices = indices;
+            this.normal = normal;
+        }
+
+        public int getVertexCount() {
+            return data.length / STRIDE;
+        }
+
+        public int getTriangleCount() {
+            return indices.length / 3;
+        }
+
+        void pack() {
+            data = new float[vertices.length * STRIDE];
+            for (int i = 0; i < vertices.length; i++)
+                for (int j = 0; j < STRIDE; j++)
+                    data[i * STRIDE + j] = (float) vertices[i][j];
+            indices = new int[triangles.length * 3];
+            for (int i = 0; i < triangles.length; i++)
+                System.arraycopy(triangles[i], 0, indices, i * 3, 3);
+            int[] t = triangles[0];
+            normal = Vector3.unit(Vector3.sub(vertices[t[1]], vertices[t[0]])
+                    .cross(Vector3.sub(vertices[t[2]], vertices[t[0]])));
+            vertices = null;
+            triangles = null;
+        }
     }
 
 }
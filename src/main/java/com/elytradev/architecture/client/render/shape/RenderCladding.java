@@ -30,9 +30,9 @@ import com.elytradev.architecture.client.render.model.IArchitectureModel;
 import com.elytradev.architecture.client.render.target.RenderTargetBase;
 import com.elytradev.architecture.client.render.texture.ITexture;
 import com.elytradev.architecture.client.render.texture.TextureBase;
+import com.elytradev.architecture.common.block.BlockStateCache;
 import com.elytradev.architecture.common.helpers.Trans3;
 import com.elytradev.architecture.common.helpers.Utils;
-import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
@@ -64,17 +64,14 @@ public class RenderCladding implements ICustomRenderer {
         if (nbt != null) {
             String blockName = nbt.getString("block");
             int meta = stack.getMetadata();
-            Block block = Block.getBlockFromName(blockName);
-            if (block != null) {
-                IBlockState state = block.getStateFromMeta(meta);
-                if (state != null) {
-                    TextureAtlasSprite sprite = Utils.getSpriteForBlockState(state);
-                    if (sprite != null) {
-                        int colourMult = Minecraft.getMinecraft().getItemColors().colorMultiplier(stack, 0);
-                        ITexture texture = TextureBase.fromSprite(sprite);
-                        IArchitectureModel model = ClientProxy.RENDERING_MANAGER.getModel("shape/cladding.objson");
-                        model.render(t, target, colourMult, colourMult, texture);
-                    }
+            IBlockState state = BlockStateCache.getState(blockName, meta);
+            if (state != null) {
+                TextureAtlasSprite sprite = Utils.getSpriteForBlockState(state);
+                if (sprite != null) {
+                    int colourMult = Minecraft.getMinecraft().getItemColors().colorMultiplier(stack, 0);
+                    ITexture texture = TextureBase.fromSprite(sprite);
+                    IArchitectureModel model = ClientProxy.RENDERING_MANAGER.getModel("shape/cladding.objson");
+                    model.render(t, target, colourMult, colourMult, texture);
                 }
             }
         }
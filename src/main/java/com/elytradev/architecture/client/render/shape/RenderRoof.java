@@ -24,6 +24,7 @@
 
 package com.elytradev.architecture.client.render.shape;
 
+import com.elytradev.architecture.client.render.ShapeRenderProfiler;
 import com.elytradev.architecture.client.render.target.RenderTargetBase;
 import com.elytradev.architecture.client.render.texture.ITexture;
 import com.elytradev.architecture.common.helpers.Trans3;
@@ -33,6 +34,8 @@ import com.elytradev.architecture.common.tile.TileShape;
 import net.minecraft.util.EnumFacing;
 
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class RenderRoof extends RenderShape {
 
@@ -50,9 +53,47 @@ public class RenderRoof extends RenderShape {
             Shape.ROOF_VALLEY, Shape.ROOF_SMART_VALLEY,
             Shape.ROOF_TILE, Shape.ROOF_INNER_CORNER};
 
+    // Classes of neighbouring shape, as bits in shapeClasses
+    protected final static int
+            RIDGE = 1,
+            RIDGE_OR_SLOPE = 2,
+            VALLEY = 4,
+            VALLEY_OR_SLOPE = 8;
+
+    protected final static int shapeClasses[] = new int[Shape.values().length];
+
+    public static boolean useGeometryTables = true;
+
+    // Local-space roof geometry, generated once per (shape, neighbour classes, layers)
+    // and replayed with only the orientation transform applied
+    protected final static Map<Long, float[]> geometryTables = new ConcurrentHashMap<>();
+
+    // Operations in a geometry table, each followed by its arguments
+    protected final static int
+            OP_INNER_FACES = 0, // nx, ny, nz
+            OP_OUTER_FACES = 1, // nx, ny, nz
+            OP_TRIANGLE = 2,
+            OP_QUAD = 3,
+            OP_END = 4,
+            OP_VERTEX = 5; // x, y, z, u, v
+
+    static {
+        addShapeClass(ridgeShapes, RIDGE);
+        addShapeClass(ridgeOrSlopeShapes, RIDGE_OR_SLOPE);
+        addShapeClass(valleyShapes, VALLEY);
+        addShapeClass(valleyOrSlopeShapes, VALLEY_OR_SLOPE);
+    }
+
     protected EnumFacing face;
     protected boolean outerFace;
     protected boolean renderBase, renderSecondary;
+    protected final double[] scratch = new double[3]; // Transformed vector, reused per vertex
+    // Snapshot of connected neighbour classes, 4 bits per global direction, filled in as directions are queried
+    protected int neighbourClasses;
+    protected int neighbourKnown;
+    // Set while generating a geometry table instead of rendering
+    protected float[] recording;
+    protected int recordingSize;
 
     public RenderRoof(TileShape te, ITexture[] textures, Trans3 t, RenderTargetBase target,
                       boolean renderBase, boolean renderSecondary, int baseColourMult, int secondaryColourMult) {
@@ -65,6 +106,17 @@ public class RenderRoof extends RenderShape {
 
     @Override
     public void render() {
+        ShapeRenderProfiler.Sample sample = ShapeRenderProfiler.begin(ShapeRenderProfiler.Section.ROOF, te.shape, target);
+        if (useGeometryTables) {
+            long key = (long) te.shape.ordinal() << 26 | (renderBase ? 1 << 25 : 0) | (renderSecondary ? 1 << 24 : 0)
+                    | localNeighbourClasses();
+            replay(geometryTables.computeIfAbsent(key, k -> generate((int) (k & 0xffffff))));
+        } else
+            renderShape();
+        ShapeRenderProfiler.end(sample, target);
+    }
+
+    protected void renderShape() {
         switch (te.shape) {
             case ROOF_TILE:
                 renderSlope();
@@ -85,12 +137,7 @@ public class RenderRoof extends RenderShape {
                 renderValley();
                 break;
             case ROOF_SMART_VALLEY:
-                StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-                boolean handleItemState = Arrays.stream(stackTrace).anyMatch(stackTraceElement -> stackTraceElement.getMethodName().startsWith("handleItemState"));
-                if (!handleItemState)
-                    renderSmartValley();
-                else
-                    renderSmartValley();
+                renderSmartValley();
                 break;
         }
     }
@@ -721,31 +768,108 @@ public class RenderRoof extends RenderShape {
 
     //-------------------------------------------------------------------------------------
 
+    // Neighbour classes of the four horizontal local directions, 4 bits per local direction
+    protected int localNeighbourClasses() {
+        if (target.isRenderingItem())
+            return 0;
+        return localNeighbourClasses(EnumFacing.EAST, 1, 0, 0)
+                | localNeighbourClasses(EnumFacing.WEST, -1, 0, 0)
+                | localNeighbourClasses(EnumFacing.SOUTH, 0, 0, 1)
+                | localNeighbourClasses(EnumFacing.NORTH, 0, 0, -1);
+    }
+
+    protected int localNeighbourClasses(EnumFacing local, int dx, int dy, int dz) {
+        t.v(dx, dy, dz, scratch);
+        EnumFacing dir = Vector3.facing(scratch[0], scratch[1], scratch[2]);
+        return neighbourClasses(dir) << (4 * local.ordinal());
+    }
+
+    // Run the procedural renderer in local space with the given neighbours, recording what it emits
+    protected float[] generate(int localClasses) {
+        RenderRoof generator = new RenderRoof(te, textures, Trans3.ident, target, renderBase, renderSecondary,
+                getBaseColourMult(), getSecondaryColourMult());
+        generator.neighbourClasses = localClasses;
+        generator.neighbourKnown = 0x3f;
+        generator.recording = new float[256];
+        generator.renderShape();
+        return Arrays.copyOf(generator.recording, generator.recordingSize);
+    }
+
+    protected void record(int op, double... args) {
+        if (recordingSize + 1 + args.length > recording.length)
+            recording = Arrays.copyOf(recording, recording.length * 2);
+        recording[recordingSize++] = op;
+        for (double arg : args)
+            recording[recordingSize++] = (float) arg;
+    }
+
+    protected void replay(float[] ops) {
+        int k = 0;
+        while (k < ops.length) {
+            switch ((int) ops[k++]) {
+                case OP_INNER_FACES:
+                    emitInnerFaces(ops[k], ops[k + 1], ops[k + 2]);
+                    k += 3;
+                    break;
+                case OP_OUTER_FACES:
+                    emitOuterFaces(ops[k], ops[k + 1], ops[k + 2]);
+                    k += 3;
+                    break;
+                case OP_TRIANGLE:
+                    target.beginTriangle();
+                    break;
+                case OP_QUAD:
+                    target.beginQuad();
+                    break;
+                case OP_END:
+                    target.endFace();
+                    break;
+                case OP_VERTEX:
+                    emitVertex(ops[k], ops[k + 1], ops[k + 2], ops[k + 3], ops[k + 4]);
+                    k += 5;
+                    break;
+            }
+        }
+    }
+
+    protected static void addShapeClass(Shape[] shapes, int shapeClass) {
+        for (Shape shape : shapes)
+            shapeClasses[shape.ordinal()] |= shapeClass;
+    }
+
     protected boolean ridgeAt(int dx, int dy, int dz) {
-        return hasNeighbour(dx, dy, dz, ridgeShapes);
+        return hasNeighbour(dx, dy, dz, RIDGE);
     }
 
     protected boolean ridgeOrSlopeAt(int dx, int dy, int dz) {
-        return hasNeighbour(dx, dy, dz, ridgeOrSlopeShapes);
+        return hasNeighbour(dx, dy, dz, RIDGE_OR_SLOPE);
     }
 
     protected boolean valleyAt(int dx, int dy, int dz) {
-        return hasNeighbour(dx, dy, dz, valleyShapes);
+        return hasNeighbour(dx, dy, dz, VALLEY);
     }
 
     protected boolean valleyOrSlopeAt(int dx, int dy, int dz) {
-        return hasNeighbour(dx, dy, dz, valleyOrSlopeShapes);
+        return hasNeighbour(dx, dy, dz, VALLEY_OR_SLOPE);
     }
 
-    protected boolean hasNeighbour(int dx, int dy, int dz, Shape[] shapes) {
-        EnumFacing dir = t.v(dx, dy, dz).facing();
-        TileShape nte = te.getConnectedNeighbourGlobal(dir);
-        if (nte != null) {
-            for (int i = 0; i < shapes.length; i++)
-                if (nte.shape == shapes[i])
-                    return true;
+    protected boolean hasNeighbour(int dx, int dy, int dz, int shapeClass) {
+        if (target.isRenderingItem())
+            return false;
+        t.v(dx, dy, dz, scratch);
+        EnumFacing dir = Vector3.facing(scratch[0], scratch[1], scratch[2]);
+        return (neighbourClasses(dir) & shapeClass) != 0;
+    }
+
+    protected int neighbourClasses(EnumFacing dir) {
+        int i = dir.ordinal();
+        if ((neighbourKnown & (1 << i)) == 0) {
+            TileShape nte = te.getConnectedNeighbourGlobal(dir);
+            if (nte != null && nte.shape != null)
+                neighbourClasses |= shapeClasses[nte.shape.ordinal()] << (4 * i);
+            neighbourKnown |= 1 << i;
         }
-        return false;
+        return (neighbourClasses >> (4 * i)) & 0xf;
     }
 
     //-------------------------------------------------------------------------------------
@@ -793,25 +917,45 @@ public class RenderRoof extends RenderShape {
     //-------------------------------------------------------------------------------------
 
     protected void beginInnerFaces(Vector3 n) {
+        if (recording != null)
+            record(OP_INNER_FACES, n.x, n.y, n.z);
+        else
+            emitInnerFaces(n.x, n.y, n.z);
+    }
+
+    protected void beginOuterFaces(Vector3 n) {
+        if (recording != null)
+            record(OP_OUTER_FACES, n.x, n.y, n.z);
+        else
+            emitOuterFaces(n.x, n.y, n.z);
+    }
+
+    protected void emitInnerFaces(double nx, double ny, double nz) {
         outerFace = false;
-        normal(n);
+        normal(nx, ny, nz);
         target.setTexture(textures[2]);
         target.setColor(getSecondaryColourMult());
     }
 
-    protected void beginOuterFaces(Vector3 n) {
+    protected void emitOuterFaces(double nx, double ny, double nz) {
         outerFace = true;
-        normal(n);
+        normal(nx, ny, nz);
         target.setTexture(textures[1]);
         target.setColor(getBaseColourMult());
     }
 
     protected void beginTriangle() {
-        target.beginTriangle();
+        if (recording != null)
+            record(OP_TRIANGLE);
+        else
+            target.beginTriangle();
     }
 
     protected void beginQuad() {
-        target.beginQuad();
+        if (recording != null)
+            record(OP_QUAD);
+        else
+            target.beginQuad();
     }
 
     protected void newTriangle() {
@@ -825,18 +969,28 @@ public class RenderRoof extends RenderShape {
     }
 
     protected void endFace() {
-        target.endFace();
+        if (recording != null)
+            record(OP_END);
+        else
+            target.endFace();
     }
 
-    protected void normal(Vector3 n) {
-        Vector3 tn = t.v(n);
-        face = tn.facing();
-        target.setNormal(tn);
+    protected void normal(double nx, double ny, double nz) {
+        t.v(nx, ny, nz, scratch);
+        face = Vector3.facing(scratch[0], scratch[1], scratch[2]);
+        target.setNormal(scratch[0], scratch[1], scratch[2]);
     }
 
     protected void vertex(double x, double y, double z, double u, double v) {
-        Vector3 q = t.p(x - 0.5, y - 0.5, z - 0.5);
-        target.addVertex(q, u, v);
+        if (recording != null)
+            record(OP_VERTEX, x - 0.5, y - 0.5, z - 0.5, u, v);
+        else
+            emitVertex(x - 0.5, y - 0.5, z - 0.5, u, v);
+    }
+
+    protected void emitVertex(double x, double y, double z, double u, double v) {
+        t.p(x, y, z, scratch);
+        target.addVertex(scratch[0], scratch[1], scratch[2], u, v);
     }
 
 }
\ No newline at end of file
@@ -37,6 +37,9 @@ import net.minecraft.util.EnumFacing;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @SideOnly(Side.CLIENT)
 public class RenderWindow extends RenderShape {
 
@@ -54,9 +57,29 @@ public class RenderWindow extends RenderShape {
         this.setSecondaryColourMult(secondaryColourMult);
     }
 
+    // Every part referenced by init(), so the models can be loaded ahead of time
+    protected static final String[] modelParts = {
+            "frame_side", "frame_end0", "frame_end1", "glass", "glass_edge",
+            "corner_centre", "corner_centre_end0", "corner_centre_end2", "corner_topbot",
+            "corner_topbot_end1", "corner_glass", "corner_glass_edge",
+            "mullion_centre", "mullion_centre_end0", "mullion_centre_end2", "mullion_topbot",
+            "mullion_glass_edge"
+    };
+
+    protected static String modelName(String part) {
+        return "shape/window_" + part + ".objson";
+    }
+
+    public static List<String> modelNames() {
+        List<String> names = new ArrayList<>();
+        for (String part : modelParts)
+            names.add(modelName(part));
+        return names;
+    }
+
     protected static IArchitectureModel model(String name) {
         if (name != null)
-            return ClientProxy.RENDERING_MANAGER.getModel("shape/window_" + name + ".objson");
+            return ClientProxy.RENDERING_MANAGER.getModel(modelName(name));
         else
             return null;
     }
@@ -122,7 +145,7 @@ public class RenderWindow extends RenderShape {
     }
 
     protected void renderWindow(WindowModels models) {
-        boolean frame[][] = getFrameFlags();
+        int frame = getFrameFlags();
         if (renderBase)
             renderModel(t, models.centre);
         for (int i = 0; i <= 3; i++) {
@@ -130,16 +153,16 @@ public class RenderWindow extends RenderShape {
             int k = (i + 1) & 3;
             Trans3 ts = t.t(kind.frameTrans[i]);
             if (renderBase) {
-                if (frame[i][1])
+                if (frame(frame, i, 1))
                     renderModel(ts, models.side[i]);
                 else if (models.centreEnd != null)
                     renderModel(t, models.centreEnd[i]);
-                if (frame[i][1] && !frame[j][1] || frame[i][0] && frame[j][2])
+                if (frame(frame, i, 1) && !frame(frame, j, 1) || frame(frame, i, 0) && frame(frame, j, 2))
                     renderModel(ts, models.end0[i]);
-                if (frame[i][1] && !frame[k][1] || frame[i][2] && frame[k][0])
+                if (frame(frame, i, 1) && !frame(frame, k, 1) || frame(frame, i, 2) && frame(frame, k, 0))
                     renderModel(ts, models.end1[i]);
             }
-            if (renderSecondary && !frame[i][1] && !frame[i][3])
+            if (renderSecondary && !frame(frame, i, 1) && !frame(frame, i, 3))
                 renderModel(ts, models.glassEdge[i]);
         }
         if (renderSecondary) {
@@ -152,32 +175,53 @@ public class RenderWindow extends RenderShape {
             model.render(t, target, getBaseColourMult(), getSecondaryColourMult(), textures);
     }
 
-    protected boolean[][] getFrameFlags() {
-        boolean[][] frame = new boolean[4][4];
+    // Frame flag f of side i, see the layout below
+    protected static boolean frame(int flags, int i, int f) {
+        return (flags & frameBit(i, f)) != 0;
+    }
+
+    protected static int frameBit(int i, int f) {
+        return 1 << (i * 4 + f);
+    }
+
+    // Frame flags are kept with the tile's render cache key, whose neighbour signature
+    // changes whenever a window they depend on does
+    protected int getFrameFlags() {
+        Object cache = te != null ? te.renderCache : null;
+        if (blockWorld == null || !(cache instanceof ShapeRenderCache))
+            return computeFrameFlags();
+        ShapeRenderCache key = (ShapeRenderCache) cache;
+        int frame = key.windowFrameFlags;
+        if (frame < 0)
+            key.windowFrameFlags = frame = computeFrameFlags();
+        return frame;
+    }
+
+    protected int computeFrameFlags() {
+        int frame = 0;
         if (blockWorld == null) {
             for (int i = 0; i <= 3; i++)
-                frame[i][1] = true;
+                frame |= frameBit(i, 1);
         } else {
             EnumFacing[] gdir = new EnumFacing[4];
-            TileShape neighbour[] = new TileShape[4];
             for (int i = 0; i <= 3; i++)
                 gdir[i] = t.t(kind.frameSides[i]);
             for (int i = 0; i <= 3; i++) {
                 if (kind.frameAlways[i])
-                    frame[i][1] = true;
+                    frame |= frameBit(i, 1);
                 else {
                     TileShape nte = getConnectedNeighbourGlobal(te, gdir[i]);
                     if (nte == null)
-                        frame[i][1] = true;
+                        frame |= frameBit(i, 1);
                     else {
                         int j = (i - 1) & 3;
                         int k = (i + 1) & 3;
                         if (getConnectedNeighbourGlobal(nte, gdir[j]) == null)
-                            frame[j][2] = true;
+                            frame |= frameBit(j, 2);
                         if (getConnectedNeighbourGlobal(nte, gdir[k]) == null)
-                            frame[k][0] = true;
+                            frame |= frameBit(k, 0);
                         if (nte.secondaryBlockState != null)
-                            frame[i][3] = true;
+                            frame |= frameBit(i, 3);
                     }
                 }
             }
@@ -210,11 +254,11 @@ public class RenderWindow extends RenderShape {
     //  frame[i][3] == glass in neighbour i
     //
 
-    protected void dumpFrameFlags(boolean[][] frame) {
+    protected void dumpFrameFlags(int frame) {
         if (te != null && te.secondaryBlockState != null) {
             ArchitectureLog.info("RenderWindow.getFrameFlags:\n");
             for (int i = 0; i <= 3; i++)
-                ArchitectureLog.info("Side %s: %s %s %s\n", i, frame[i][0], frame[i][1], frame[i][2]);
+                ArchitectureLog.info("Side %s: %s %s %s\n", i, frame(frame, i, 0), frame(frame, i, 1), frame(frame, i, 2));
         }
     }
 
@@ -0,0 +1,207 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.client.render.shape;
+
+import com.elytradev.architecture.client.render.target.RecordedGeometry;
+import com.elytradev.architecture.common.shape.Shape;
+import com.elytradev.architecture.common.tile.TileShape;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.BlockRenderLayer;
+import net.minecraft.util.EnumFacing;
+
+import java.util.Arrays;
+
+/**
+ * Cache of transformed, texture-mapped shape geometry, one entry per render layer.
+ * Instances are keys describing everything the geometry depends on: shape, orientation,
+ * materials and neighbour connections. Recorded geometry is relative to the block, so
+ * tiles in the same state share it; each tile only keeps a reference to its current key.
+ * Lighting is applied when the geometry is replayed.
+ */
+public class ShapeRenderCache {
+
+    public static boolean enabled = true;
+    public static long maxCacheBytes = 64 * 1024 * 1024;
+
+    protected static final Cache<LayerKey, RecordedGeometry> geometry = CacheBuilder.newBuilder()
+            .maximumWeight(maxCacheBytes)
+            .weigher((LayerKey key, RecordedGeometry g) -> g.getSizeInBytes())
+            .build();
+
+    // Bumped whenever the texture atlas is rebuilt, since recorded UVs point into it
+    protected static volatile int generation;
+
+    protected final int cacheGeneration;
+    protected final Shape shape;
+    protected final byte side, turn;
+    protected final double offsetX;
+    protected final IBlockState baseBlockState, secondaryBlockState;
+    protected final int disabledConnections;
+    protected final int[] neighbours;
+    protected final int hash;
+    // Packed RenderWindow frame flags for this state, -1 until computed; not part of the key
+    public volatile int windowFrameFlags = -1;
+
+    protected ShapeRenderCache(TileShape te, int[] neighbours) {
+        cacheGeneration = generation;
+        shape = te.shape;
+        side = te.getSide();
+        turn = te.getTurn();
+        offsetX = te.getOffsetX();
+        baseBlockState = te.baseBlockState;
+        secondaryBlockState = te.secondaryBlockState;
+        disabledConnections = te.disabledConnections;
+        this.neighbours = neighbours;
+        int h = cacheGeneration;
+        h = 31 * h + (shape != null ? shape.ordinal() : -1);
+        h = 31 * h + (side << 3 | turn);
+        h = 31 * h + Double.hashCode(offsetX);
+        h = 31 * h + System.identityHashCode(baseBlockState);
+        h = 31 * h + System.identityHashCode(secondaryBlockState);
+        h = 31 * h + disabledConnections;
+        hash = 31 * h + Arrays.hashCode(neighbours);
+    }
+
+    public static void invalidateAll() {
+        generation++;
+        geometry.invalidateAll();
+    }
+
+    // Returns the cache for the tile's current state, replacing a stale one
+    public static ShapeRenderCache forTile(TileShape te) {
+        int[] neighbours = neighbourSignature(te);
+        Object cached = te.renderCache;
+        if (cached instanceof ShapeRenderCache && ((ShapeRenderCache) cached).matches(te, neighbours))
+            return (ShapeRenderCache) cached;
+        ShapeRenderCache cache = new ShapeRenderCache(te, neighbours);
+        te.renderCache = cache;
+        return cache;
+    }
+
+    protected boolean matches(TileShape te, int[] neighbours) {
+        return cacheGeneration == generation
+                && shape == te.shape
+                && side == te.getSide()
+                && turn == te.getTurn()
+                && offsetX == te.getOffsetX()
+                && baseBlockState == te.baseBlockState
+                && secondaryBlockState == te.secondaryBlockState
+                && disabledConnections == te.disabledConnections
+                && Arrays.equals(this.neighbours, neighbours);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof ShapeRenderCache))
+            return false;
+        ShapeRenderCache other = (ShapeRenderCache) o;
+        return hash == other.hash
+                && cacheGeneration == other.cacheGeneration
+                && shape == other.shape
+                && side == other.side
+                && turn == other.turn
+                && offsetX == other.offsetX
+                && baseBlockState == other.baseBlockState
+                && secondaryBlockState == other.secondaryBlockState
+                && disabledConnections == other.disabledConnections
+                && Arrays.equals(neighbours, other.neighbours);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    public RecordedGeometry get(BlockRenderLayer layer) {
+        return geometry.getIfPresent(new LayerKey(this, layer));
+    }
+
+    public void put(BlockRenderLayer layer, RecordedGeometry g) {
+        geometry.put(new LayerKey(this, layer), g);
+    }
+
+    public static long getCachedBytes() {
+        long bytes = 0;
+        for (RecordedGeometry g : geometry.asMap().values())
+            bytes += g.getSizeInBytes();
+        return bytes;
+    }
+
+    protected static class LayerKey {
+        protected final ShapeRenderCache state;
+        protected final BlockRenderLayer layer;
+
+        protected LayerKey(ShapeRenderCache state, BlockRenderLayer layer) {
+            this.state = state;
+            this.layer = layer;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof LayerKey))
+                return false;
+            LayerKey other = (LayerKey) o;
+            return layer == other.layer && state.equals(other.state);
+        }
+
+        @Override
+        public int hashCode() {
+            return state.hash * 31 + layer.ordinal();
+        }
+    }
+
+    //-----------------------------------------------------------------------------------------
+
+    protected static int[] neighbourSignature(TileShape te) {
+        int depth = te.shape != null ? te.shape.kind.renderNeighbourDepth() : 0;
+        int[] signature = new int[signatureSize(depth)];
+        addNeighbourSignature(te, depth, signature, 0);
+        return signature;
+    }
+
+    protected static int signatureSize(int depth) {
+        return depth > 0 ? 6 * (1 + signatureSize(depth - 1)) : 0;
+    }
+
+    protected static int addNeighbourSignature(TileShape te, int depth, int[] signature, int k) {
+        if (depth > 0) {
+            for (EnumFacing dir : EnumFacing.VALUES) {
+                TileShape nte = te.getConnectedNeighbourGlobal(dir);
+                if (nte != null && nte.shape != null) {
+                    signature[k++] = (nte.shape.id + 1) << 8 | (nte.secondaryBlockState != null ? 0x80 : 0)
+                            | nte.getSide() << 3 | nte.getTurn();
+                    k = addNeighbourSignature(nte, depth - 1, signature, k);
+                } else
+                    k += 1 + signatureSize(depth - 1);
+            }
+        }
+        return k;
+    }
+
+}
@@ -25,7 +25,11 @@
 package com.elytradev.architecture.client.render.shape;
 
 import com.elytradev.architecture.client.render.ICustomRenderer;
+import com.elytradev.architecture.client.render.ShapeRenderProfiler;
+import com.elytradev.architecture.client.render.target.RecordedGeometry;
 import com.elytradev.architecture.client.render.target.RenderTargetBase;
+import com.elytradev.architecture.client.render.target.RenderTargetRecorder;
+import com.elytradev.architecture.client.render.target.RenderTargetWorld;
 import com.elytradev.architecture.client.render.texture.ITexture;
 import com.elytradev.architecture.client.render.texture.TextureBase;
 import com.elytradev.architecture.common.helpers.Trans3;
@@ -61,7 +65,19 @@ public class ShapeRenderDispatch implements ICustomRenderer {
             int baseColour = renderBase ? getColourFromState(te.baseBlockState) : -1;
             int secondaryColour = renderSecondary ? getColourFromState(te.secondaryBlockState) : baseColour;
 
-            renderShapeTE(te, target, t2, renderBase, renderSecondary, baseColour, secondaryColour);
+            if (ShapeRenderCache.enabled && layer != null && target instanceof RenderTargetWorld
+                    && !target.isRenderingBreakEffects()) {
+                ShapeRenderCache cache = ShapeRenderCache.forTile(te);
+                RecordedGeometry geometry = cache.get(layer);
+                if (geometry == null) {
+                    RenderTargetRecorder recorder = new RenderTargetRecorder(pos);
+                    renderShapeTE(te, recorder, t2, renderBase, renderSecondary, baseColour, secondaryColour);
+                    geometry = recorder.getGeometry();
+                    cache.put(layer, geometry);
+                }
+                geometry.render(target);
+            } else
+                renderShapeTE(te, target, t2, renderBase, renderSecondary, baseColour, secondaryColour);
         }
     }
 
@@ -130,9 +146,12 @@ public class ShapeRenderDispatch implements ICustomRenderer {
                             renderSecondary = renderBase;
                         }
                     }
+                    ShapeRenderProfiler.Sample sample = ShapeRenderProfiler.begin(
+                            ShapeRenderProfiler.Section.SHAPE, te.shape, target);
                     te.shape.kind.renderShape(te, textures, target, t,
                             renderBase, renderSecondary,
                             baseColourMult, secondaryColourMult);
+                    ShapeRenderProfiler.end(sample, target);
                 }
             }
         }
@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.client.render.target;
+
+import com.elytradev.architecture.client.render.texture.ITexture;
+import com.elytradev.architecture.client.render.texture.TextureBase;
+
+/**
+ * Geometry captured by a {@link RenderTargetRecorder}. Positions are stored relative to
+ * the recorded block and texture coordinates are already mapped into the atlas, so
+ * replaying only has to apply lighting.
+ */
+public class RecordedGeometry {
+
+    // Per face: vertex count, followed by that many vertices of
+    // x, y, z, u, v, nx, ny, nz, r, g, b, a
+    public static final int VERTEX_SIZE = 12;
+
+    protected static final ITexture neutralTexture = new TextureBase.Solid(1, 1, 1);
+
+    protected final float[] data;
+
+    public RecordedGeometry(float[] data) {
+        this.data = data;
+    }
+
+    public boolean isEmpty() {
+        return data.length == 0;
+    }
+
+    public int getSizeInBytes() {
+        return data.length * 4;
+    }
+
+    public void render(RenderTargetBase target) {
+        // Colours were recorded with the texture tint already applied
+        ITexture savedTexture = target.texture;
+        target.texture = neutralTexture;
+        float[] d = data;
+        int k = 0;
+        while (k < d.length) {
+            int n = (int) d[k++];
+            if (n == 3)
+                target.beginTriangle();
+            else
+                target.beginQuad();
+            for (int i = 0; i < n; i++) {
+                target.setColor(d[k + 8], d[k + 9], d[k + 10], d[k + 11]);
+                target.setNormal(d[k + 5], d[k + 6], d[k + 7]);
+                target.addMappedVertex(
+                        target.blockX + d[k], target.blockY + d[k + 1], target.blockZ + d[k + 2],
+                        d[k + 3], d[k + 4]);
+                k += VERTEX_SIZE;
+            }
+            target.endFace();
+        }
+        target.texture = savedTexture;
+    }
+
+}
@@ -27,19 +27,15 @@ package com.elytradev.architecture.client.render.target;
 import com.elytradev.architecture.client.render.texture.TextureBase;
 import com.elytradev.architecture.common.ArchitectureLog;
 import com.elytradev.architecture.common.ArchitectureMod;
-import com.elytradev.architecture.common.helpers.Vector3;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.block.model.*;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
 import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
 import net.minecraft.client.renderer.vertex.VertexFormat;
-import net.minecraft.client.renderer.vertex.VertexFormatElement;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import org.lwjgl.util.vector.Vector3f;
 
-import java.nio.ByteBuffer;
-import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -112,7 +108,8 @@ public class RenderTargetBaked extends RenderTargetBase {
     protected VertexFormat format = theFormat;
     protected int bytesPerVertex = format.getSize();
     protected int intsPerVertex = bytesPerVertex / 4;
-    protected ByteBuffer buf = ByteBuffer.allocate(bytesPerVertex * 4);
+    protected int[] data; // Vertex data of the face being built
+    protected int dataSize;
     protected List<BakedQuad> quads;
 
     public RenderTargetBaked() {
@@ -141,24 +138,22 @@ public class RenderTargetBaked extends RenderTargetBase {
     @Override
     protected void setMode(int m) {
         super.setMode(m);
-        buf.clear();
+        data = new int[intsPerVertex * 4];
+        dataSize = 0;
     }
 
     @Override
     public void endFace() {
         super.endFace();
-        buf.flip();
-        int intsPerQuad = intsPerVertex * 4;
-        int[] data = new int[intsPerQuad];
-        IntBuffer intBuf = buf.asIntBuffer();
-        int n = intBuf.limit();
-        intBuf.get(data, 0, n);
-        while (n < intsPerQuad) {
+        int[] data = this.data;
+        int n = dataSize;
+        while (n < data.length) {
             data[n] = data[n - intsPerVertex];
             ++n;
         }
         prescrambleVertexColors(data);
         quads.add(new BakedQuad(data, 0, face, getActiveTexture(), false, DefaultVertexFormats.ITEM));
+        this.data = null;
     }
 
     private TextureAtlasSprite getActiveTexture() {
@@ -191,11 +186,14 @@ public class RenderTargetBaked extends RenderTargetBase {
     }
 
     protected void prescrambleVertexColors(int[] data) {
-        int[] c = new int[4];
-        for (int i = 0; i < 4; i++)
-            c[i] = data[i * intsPerVertex + 3];
-        for (int i = 0; i < 4; i++)
-            data[i * intsPerVertex + 3] = c[3 - i];
+        // Reverse the order of the vertex colours in place
+        for (int i = 0; i < 2; i++) {
+            int k = i * intsPerVertex + 3;
+            int l = (3 - i) * intsPerVertex + 3;
+            int c = data[k];
+            data[k] = data[l];
+            data[l] = c;
+        }
     }
 
     public IBakedModel getBakedModel() {
@@ -209,59 +207,30 @@ public class RenderTargetBaked extends RenderTargetBase {
                 particleTexture, transforms, ItemOverrideList.NONE);
     }
 
+    // Writes one vertex of theFormat straight into the face's int data:
+    // position (3 floats), colour (ABGR bytes), texture (2 floats), then
+    // a padding byte followed by the normal bytes.
     @Override
-    protected void rawAddVertex(Vector3 p, double u, double v) {
-        for (VertexFormatElement e : format.getElements()) {
-            switch (e.getUsage()) {
-                case POSITION:
-                    putElement(e, p.x, p.y, p.z);
-                    break;
-                case COLOR:
-                    putElement(e, alpha, blue, green, red);
-                    break;
-                case NORMAL:
-                    putElement(e, normal.x, normal.y, normal.z);
-                    break;
-                case UV:
-                    putElement(e, u, v);
-                    break;
-                default:
-                    putElement(e);
-            }
-        }
-    }
-
-    protected void putElement(VertexFormatElement e, Number... ns) {
-        Number n;
-        for (int i = 0; i < e.getElementCount(); i++) {
-            if (i < ns.length)
-                n = ns[i];
-            else
-                n = 0;
-            switch (e.getType()) {
-                case BYTE:
-                    buf.put((byte) (n.floatValue() * 0x7f));
-                    break;
-                case UBYTE:
-                    buf.put((byte) (n.floatValue() * 0xff));
-                    break;
-                case SHORT:
-                    buf.putShort((short) (n.floatValue() * 0x7fff));
-                    break;
-                case USHORT:
-                    buf.putShort((short) (n.floatValue() * 0xffff));
-                    break;
-                case INT:
-                    buf.putInt((int) (n.doubleValue() * 0x7fffffff));
-                    break;
-                case UINT:
-                    buf.putInt((int) (n.doubleValue() * 0xffffffff));
-                    break;
-                case FLOAT:
-                    buf.putFloat(n.floatValue());
-                    break;
-            }
-        }
+    protected void rawAddVertex(double x, double y, double z, double u, double v) {
+        int[] data = this.data;
+        int k = dataSize;
+        data[k] = Float.floatToRawIntBits((float) x);
+        data[k + 1] = Float.floatToRawIntBits((float) y);
+        data[k + 2] = Float.floatToRawIntBits((float) z);
+        data[k + 3] = packUnsignedByte(alpha) << 24 | packUnsignedByte(blue) << 16
+                | packUnsignedByte(green) << 8 | packUnsignedByte(red);
+        data[k + 4] = Float.floatToRawIntBits((float) u);
+        data[k + 5] = Float.floatToRawIntBits((float) v);
+        data[k + 6] = packSignedByte(normalX) << 16 | packSignedByte(normalY) << 8 | packSignedByte(normalZ);
+        dataSize = k + intsPerVertex;
+    }
+
+    protected static int packUnsignedByte(float f) {
+        return (int) (f * 0xff) & 0xff;
+    }
+
+    protected static int packSignedByte(double d) {
+        return (int) ((float) d * 0x7f) & 0xff;
     }
 
 }
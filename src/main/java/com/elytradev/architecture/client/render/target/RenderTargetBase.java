@@ -38,12 +38,15 @@ public abstract class RenderTargetBase {
     protected int verticesPerFace;
     protected int vertexCount;
     protected ITexture texture;
-    protected Vector3 normal;
+    protected double normalX, normalY, normalZ;
+    protected boolean hasNormal;
     protected EnumFacing face;
     protected float red = 1, green = 1, blue = 1, alpha = 1;
     protected float shade;
     protected boolean expandTrianglesToQuads;
     protected boolean textureOverride;
+    protected boolean renderingItem;
+    protected long triangleCount;
 
     public RenderTargetBase(double x, double y, double z, TextureAtlasSprite overrideIcon) {
         blockX = x;
@@ -61,6 +64,15 @@ public abstract class RenderTargetBase {
         return textureOverride;
     }
 
+    // True when building an item model, where there is no world to look at neighbours in
+    public boolean isRenderingItem() {
+        return renderingItem;
+    }
+
+    public void setRenderingItem(boolean renderingItem) {
+        this.renderingItem = renderingItem;
+    }
+
     public void beginTriangle() {
         setMode(3);
     }
@@ -99,33 +111,50 @@ public abstract class RenderTargetBase {
     }
 
     public void setNormal(Vector3 n) {
-        normal = n;
-        face = n.facing();
-        shade = (float) (0.6 * n.x * n.x + 0.8 * n.z * n.z + (n.y > 0 ? 1 : 0.5) * n.y * n.y);
+        setNormal(n.x, n.y, n.z);
+    }
+
+    public void setNormal(double x, double y, double z) {
+        normalX = x;
+        normalY = y;
+        normalZ = z;
+        hasNormal = true;
+        face = Vector3.facing(x, y, z);
+        shade = (float) (0.6 * x * x + 0.8 * z * z + (y > 0 ? 1 : 0.5) * y * y);
     }
 
     public void addVertex(Vector3 p, double u, double v) {
+        addVertex(p.x, p.y, p.z, u, v);
+    }
+
+    public void addVertex(double x, double y, double z, double u, double v) {
         if (texture.isProjected())
-            addProjectedVertex(p, face);
+            addProjectedVertex(x, y, z, face);
         else
-            addUVVertex(p, u, v);
+            addUVVertex(x, y, z, u, v);
     }
 
     public void addUVVertex(Vector3 p, double u, double v) {
-        double iu, iv;
+        addUVVertex(p.x, p.y, p.z, u, v);
+    }
+
+    public void addUVVertex(double x, double y, double z, double u, double v) {
+        if (texture == null)
+            throw new IllegalStateException("No texture");
+        addMappedVertex(x, y, z, texture.interpolateU(u), texture.interpolateV(v));
+    }
+
+    // Add vertex with texture coords already interpolated into the texture
+    public void addMappedVertex(double x, double y, double z, double iu, double iv) {
         if (verticesPerFace == 0)
             throw new IllegalStateException("No face active");
         if (vertexCount >= verticesPerFace)
             throw new IllegalStateException("Too many vertices in face");
-        if (normal == null)
+        if (!hasNormal)
             throw new IllegalStateException("No normal");
-        if (texture == null)
-            throw new IllegalStateException("No texture");
-        iu = texture.interpolateU(u);
-        iv = texture.interpolateV(v);
-        rawAddVertex(p, iu, iv);
+        rawAddVertex(x, y, z, iu, iv);
         if (++vertexCount == 3 && expandTrianglesToQuads && verticesPerFace == 3) {
-            rawAddVertex(p, iu, iv);
+            rawAddVertex(x, y, z, iu, iv);
         }
     }
 
@@ -133,10 +162,16 @@ public abstract class RenderTargetBase {
         if (vertexCount < verticesPerFace) {
             throw new IllegalStateException("Too few vertices in face");
         }
+        triangleCount += verticesPerFace - 2;
         vertexCount = 0;
         verticesPerFace = 0;
     }
 
+    // Triangles in all faces ended so far, counting a quad as two
+    public long getTriangleCount() {
+        return triangleCount;
+    }
+
     public void finish() {
         if (vertexCount > 0)
             throw new IllegalStateException("Rendering ended with incomplete face");
@@ -144,7 +179,7 @@ public abstract class RenderTargetBase {
 
     //-----------------------------------------------------------------------------------------
 
-    protected abstract void rawAddVertex(Vector3 p, double u, double v);
+    protected abstract void rawAddVertex(double x, double y, double z, double u, double v);
 
     public float r() {
         return (float) (red * texture.red());
@@ -164,11 +199,15 @@ public abstract class RenderTargetBase {
 
     // Add vertex with texture coords projected from the given direction
     public void addProjectedVertex(Vector3 p, EnumFacing face) {
-        double x = p.x - blockX;
-        double y = p.y - blockY;
-        double z = p.z - blockZ;
+        addProjectedVertex(p.x, p.y, p.z, face);
+    }
+
+    public void addProjectedVertex(double px, double py, double pz, EnumFacing face) {
+        double x = px - blockX;
+        double y = py - blockY;
+        double z = pz - blockZ;
         //System.out.printf("BaseRenderTarget.addProjectedVertex: world (%.3f, %.3f, %.3f) block (%.3f, %.3f, %.3f) %s\n",
-        //  p.x, p.y, p.z, x, y, z, face);
+        //  px, py, pz, x, y, z, face);
         double u, v;
         switch (face) {
             case DOWN:
@@ -199,7 +238,7 @@ public abstract class RenderTargetBase {
                 u = 0;
                 v = 0;
         }
-        addUVVertex(p, u, v);
+        addUVVertex(px, py, pz, u, v);
     }
 
 }
@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.client.render.target;
+
+import net.minecraft.util.math.BlockPos;
+
+import java.util.Arrays;
+
+/**
+ * Render target that captures transformed, texture-mapped vertices so that they
+ * can be replayed into another target later without re-running the shape renderer.
+ */
+public class RenderTargetRecorder extends RenderTargetBase {
+
+    protected float[] data = new float[RecordedGeometry.VERTEX_SIZE * 64];
+    protected int size;
+
+    public RenderTargetRecorder(BlockPos pos) {
+        super(pos.getX(), pos.getY(), pos.getZ(), null);
+    }
+
+    @Override
+    protected void setMode(int mode) {
+        super.setMode(mode);
+        ensureCapacity(1);
+        data[size++] = mode;
+    }
+
+    @Override
+    protected void rawAddVertex(double x, double y, double z, double u, double v) {
+        ensureCapacity(RecordedGeometry.VERTEX_SIZE);
+        float[] d = data;
+        int k = size;
+        d[k] = (float) (x - blockX);
+        d[k + 1] = (float) (y - blockY);
+        d[k + 2] = (float) (z - blockZ);
+        d[k + 3] = (float) u;
+        d[k + 4] = (float) v;
+        d[k + 5] = (float) normalX;
+        d[k + 6] = (float) normalY;
+        d[k + 7] = (float) normalZ;
+        d[k + 8] = r();
+        d[k + 9] = g();
+        d[k + 10] = b();
+        d[k + 11] = a();
+        size = k + RecordedGeometry.VERTEX_SIZE;
+    }
+
+    protected void ensureCapacity(int n) {
+        if (size + n > data.length)
+            data = Arrays.copyOf(data, Math.max(data.length * 2, size + n));
+    }
+
+    public RecordedGeometry getGeometry() {
+        finish();
+        return new RecordedGeometry(Arrays.copyOf(data, size));
+    }
+
+}
@@ -26,13 +26,13 @@ package com.elytradev.architecture.client.render.target;
 
 import com.elytradev.architecture.common.ArchitectureLog;
 import com.elytradev.architecture.common.ArchitectureMod;
-import com.elytradev.architecture.common.helpers.Vector3;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.BufferBuilder;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3i;
 import net.minecraft.world.IBlockAccess;
 
 import static com.elytradev.architecture.common.utils.MiscUtils.ifloor;
@@ -51,6 +51,7 @@ public class RenderTargetWorld extends RenderTargetBase {
     protected boolean renderingOccurred;
     protected float vr, vg, vb, va; // Colour to be applied to next vertex
     protected int vlm1, vlm2; // Light map values to be applied to next vertex
+    protected BlockPos.MutableBlockPos samplePos = new BlockPos.MutableBlockPos(); // Reused for light sampling
     private BufferBuilder tess;
 
     public RenderTargetWorld(IBlockAccess world, BlockPos pos, BufferBuilder tess, TextureAtlasSprite overrideIcon) {
@@ -69,19 +70,20 @@ public class RenderTargetWorld extends RenderTargetBase {
     // ---------------------------- IRenderTarget ----------------------------
 
     @Override
-    public void setNormal(Vector3 n) {
+    public void setNormal(double x, double y, double z) {
 //      ArchitectureLog.info("BaseWorldRenderer.setNormal: %s (%.3f, %.3f, %.3f)\n",
-//          vertexCount, n.x, n.y, n.z);
-        super.setNormal(n);
-        axisAlignedNormal = n.dot(face) >= 0.99;
+//          vertexCount, x, y, z);
+        super.setNormal(x, y, z);
+        Vec3i d = face.getDirectionVec();
+        axisAlignedNormal = x * d.getX() + y * d.getY() + z * d.getZ() >= 0.99;
     }
 
     @Override
-    protected void rawAddVertex(Vector3 p, double u, double v) {
-        lightVertex(p);
+    protected void rawAddVertex(double x, double y, double z, double u, double v) {
+        lightVertex(x, y, z);
         //ArchitectureLog.info("BaseWorldRenderer.rawAddVertex: %s (%.3f, %.3f, %.3f) rgba (%.3f, %.3f, %.3f, %.3f) uv (%.5f, %.5f) lm (%s, %s)\n",
-        //    vertexCount, p.x, p.y, p.z, vr, vg, vb, va, u, v, vlm1, vlm2); // tess.getCurrentOffset());
-        getWorldRenderer().pos(p.x, p.y, p.z);
+        //    vertexCount, x, y, z, vr, vg, vb, va, u, v, vlm1, vlm2); // tess.getCurrentOffset());
+        getWorldRenderer().pos(x, y, z);
         getWorldRenderer().color(vr, vg, vb, va);
         getWorldRenderer().tex(u, v);
         getWorldRenderer().lightmap(vlm1, vlm2);
@@ -93,21 +95,21 @@ public class RenderTargetWorld extends RenderTargetBase {
 
     //-----------------------------------------------------------------------------------------
 
-    protected void lightVertex(Vector3 p) {
+    protected void lightVertex(double x, double y, double z) {
         // TODO: Colour multiplier
         if (ao)
-            aoLightVertex(p);
+            aoLightVertex(x, y, z);
         else
-            brLightVertex(p);
+            brLightVertex(x, y, z);
     }
 
-    protected void aoLightVertex(Vector3 v) {
-        Vector3 n = normal;
+    protected void aoLightVertex(double x, double y, double z) {
         double brSum1 = 0, brSum2 = 0, lvSum = 0, wt = 0;
         // Sample a unit cube offset half a block in the direction of the normal
-        double vx = v.x + 0.5 * n.x;
-        double vy = v.y + 0.5 * n.y;
-        double vz = v.z + 0.5 * n.z;
+        double vx = x + 0.5 * normalX;
+        double vy = y + 0.5 * normalY;
+        double vz = z + 0.5 * normalZ;
+        BlockPos.MutableBlockPos pos = samplePos;
         // Examine 8 neighbouring blocks
         for (int dx = -1; dx <= 1; dx += 2)
             for (int dy = -1; dy <= 1; dy += 2)
@@ -115,7 +117,7 @@ public class RenderTargetWorld extends RenderTargetBase {
                     int X = ifloor(vx + 0.5 * dx);
                     int Y = ifloor(vy + 0.5 * dy);
                     int Z = ifloor(vz + 0.5 * dz);
-                    BlockPos pos = new BlockPos(X, Y, Z);
+                    pos.setPos(X, Y, Z);
                     // Calculate overlap of sampled block with sampling cube
                     double wox = (dx < 0) ? (X + 1) - (vx - 0.5) : (vx + 0.5) - X;
                     double woy = (dy < 0) ? (Y + 1) - (vy - 0.5) : (vy + 0.5) - Y;
@@ -156,14 +158,13 @@ public class RenderTargetWorld extends RenderTargetBase {
         setLight(shade * lvv, brv);
     }
 
-    protected void brLightVertex(Vector3 p) {
-        Vector3 n = normal;
+    protected void brLightVertex(double x, double y, double z) {
         BlockPos pos;
         if (axisAlignedNormal)
-            pos = new BlockPos(
-                    (int) floor(p.x + 0.01 * n.x),
-                    (int) floor(p.y + 0.01 * n.y),
-                    (int) floor(p.z + 0.01 * n.z));
+            pos = samplePos.setPos(
+                    (int) floor(x + 0.01 * normalX),
+                    (int) floor(y + 0.01 * normalY),
+                    (int) floor(z + 0.01 * normalZ));
         else
             pos = blockPos;
         int br = block.getPackedLightmapCoords(blockState, world, pos);
@@ -24,13 +24,16 @@
 
 package com.elytradev.architecture.common;
 
+import com.elytradev.architecture.common.block.BlockStateCache;
 import com.elytradev.architecture.common.drop.ModDrops;
 import com.elytradev.architecture.common.proxy.CommonProxy;
+import com.elytradev.architecture.common.tile.TileSawbench;
 import net.minecraft.launchwrapper.Launch;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.SidedProxy;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLModIdMappingEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 
@@ -82,5 +85,11 @@ public class ArchitectureMod {
 
         DROPS.postInit(e);
     }
+
+    @Mod.EventHandler
+    public void onIdMapping(FMLModIdMappingEvent e) {
+        BlockStateCache.clear();
+        TileSawbench.clearResultTemplates();
+    }
 }
 
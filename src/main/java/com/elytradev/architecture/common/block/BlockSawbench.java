@@ -83,6 +83,14 @@ public class BlockSawbench extends BlockArchitecture<TileSawbench> {
             return false;
     }
 
+    @Override
+    public void breakBlock(World world, BlockPos pos, IBlockState state) {
+        TileEntity te = world.getTileEntity(pos);
+        if (te instanceof TileSawbench)
+            ((TileSawbench) te).dropOutputBuffer();
+        super.breakBlock(world, pos, state);
+    }
+
     @Override
     public TileEntity createNewTileEntity(World world, int meta) {
         return new TileSawbench();
@@ -26,6 +26,7 @@ package com.elytradev.architecture.common.block;
 
 import com.elytradev.architecture.common.helpers.Trans3;
 import com.elytradev.architecture.common.helpers.Vector3;
+import com.elytradev.architecture.common.shape.CollisionBoxSet;
 import com.elytradev.architecture.common.tile.TileShape;
 import com.elytradev.architecture.legacy.base.BaseOrientation;
 import net.minecraft.block.Block;
@@ -174,6 +175,13 @@ public class BlockShape extends BlockArchitecture<TileShape> {
 
     @Override
     public RayTraceResult collisionRayTrace(IBlockState state, World world, BlockPos pos, Vec3d start, Vec3d end) {
+        CollisionBoxSet set = getCollisionBoxSet(world, pos);
+        if (set != null) {
+            RayTraceResult result = set.rayTrace(pos, start, end);
+            if (result != null)
+                boxHit = set.boxes[result.subHit];
+            return result;
+        }
         RayTraceResult result = null;
         double nearestDistance = 0;
         List<AxisAlignedBB> list = getGlobalCollisionBoxes(world, pos, state, null);
@@ -219,6 +227,11 @@ public class BlockShape extends BlockArchitecture<TileShape> {
     @Override
     public void addCollisionBoxToList(IBlockState state, World world, BlockPos pos,
                                       AxisAlignedBB clip, List result, Entity entity, boolean b) {
+        CollisionBoxSet set = getCollisionBoxSet(world, pos);
+        if (set != null) {
+            set.addIntersectingBoxes(pos, clip, result);
+            return;
+        }
         List<AxisAlignedBB> list = getGlobalCollisionBoxes(world, pos, state, entity);
         if (list != null)
             for (AxisAlignedBB box : list)
@@ -231,6 +244,9 @@ public class BlockShape extends BlockArchitecture<TileShape> {
                                                           IBlockState state, Entity entity) {
         TileShape te = getTileEntity(world, pos);
         if (te != null) {
+            CollisionBoxSet set = te.getCollisionBoxSet();
+            if (set != null)
+                return set.getGlobalBoxes(pos);
             Trans3 t = te.localToGlobalTransformation();
             return getCollisionBoxes(te, world, pos, state, t, entity);
         }
@@ -253,12 +269,20 @@ public class BlockShape extends BlockArchitecture<TileShape> {
                                            IBlockState state, Entity entity) {
         TileShape te = getTileEntity(world, pos);
         if (te != null) {
+            CollisionBoxSet set = te.getCollisionBoxSet();
+            if (set != null)
+                return set.bounds;
             Trans3 t = te.localToGlobalTransformation(Vector3.blockCenter);
             return te.shape.kind.getBounds(te, world, pos, state, entity, t);
         }
         return null; // Causes getBoundingBox to fall back on super implementation
     }
 
+    protected CollisionBoxSet getCollisionBoxSet(IBlockAccess world, BlockPos pos) {
+        TileShape te = getTileEntity(world, pos);
+        return te != null ? te.getCollisionBoxSet() : null;
+    }
+
     protected List<AxisAlignedBB> getCollisionBoxes(TileShape te,
                                                     IBlockAccess world, BlockPos pos, IBlockState state, Trans3 t, Entity entity) {
         List<AxisAlignedBB> list = new ArrayList<AxisAlignedBB>();
@@ -329,6 +353,14 @@ public class BlockShape extends BlockArchitecture<TileShape> {
         return false;
     }
 
+    @Override
+    public void neighborChanged(IBlockState state, World world, BlockPos pos, Block block, BlockPos fromPos) {
+        super.neighborChanged(state, world, pos, block, fromPos);
+        TileShape te = TileShape.get(world, pos);
+        if (te != null)
+            te.invalidateRenderCache();
+    }
+
     @Override
     public boolean canRenderInLayer(IBlockState state, BlockRenderLayer layer) {
         return true;
@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.common.block;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared lookup of blocks and block states by registry name and metadata, as stored
+ * in shape and cladding NBT. Each name is looked up in the block registry once and
+ * each state is derived from its metadata once, until the registry is remapped.
+ */
+public class BlockStateCache {
+
+    public static boolean enabled = true;
+
+    protected static final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>(512);
+
+    protected static final AtomicLong hits = new AtomicLong();
+    protected static final AtomicLong lookups = new AtomicLong();
+
+    // Returns null if no block is registered under the given name
+    public static Block getBlock(String name) {
+        if (name == null || name.isEmpty())
+            return null;
+        if (!enabled)
+            return Block.getBlockFromName(name);
+        return getEntry(name).block;
+    }
+
+    // Returns null if no block is registered under the given name
+    public static IBlockState getState(String name, int meta) {
+        if (name == null || name.isEmpty())
+            return null;
+        if (!enabled) {
+            Block block = Block.getBlockFromName(name);
+            return block != null ? block.getStateFromMeta(meta) : null;
+        }
+        Entry entry = getEntry(name);
+        if (entry.block == null)
+            return null;
+        if (meta < 0 || meta >= entry.states.length)
+            return entry.block.getStateFromMeta(meta);
+        IBlockState state = entry.states[meta];
+        if (state == null) {
+            state = entry.block.getStateFromMeta(meta);
+            entry.states[meta] = state;
+        }
+        return state;
+    }
+
+    protected static Entry getEntry(String name) {
+        Entry entry = entries.get(name);
+        if (entry != null) {
+            hits.incrementAndGet();
+            return entry;
+        }
+        lookups.incrementAndGet();
+        entry = new Entry(Block.getBlockFromName(name));
+        Entry existing = entries.putIfAbsent(name, entry);
+        return existing != null ? existing : entry;
+    }
+
+    public static void clear() {
+        entries.clear();
+    }
+
+    public static long getHits() {
+        return hits.get();
+    }
+
+    public static long getRegistryLookups() {
+        return lookups.get();
+    }
+
+    public static String getStats() {
+        return String.format("BlockStateCache: %d names, %d hits, %d registry lookups",
+                entries.size(), hits.get(), lookups.get());
+    }
+
+    protected static class Entry {
+        public final Block block;
+        public final IBlockState[] states = new IBlockState[16];
+
+        public Entry(Block block) {
+            this.block = block;
+        }
+    }
+
+}
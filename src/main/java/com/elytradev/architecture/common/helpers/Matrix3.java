@@ -46,18 +46,53 @@ public class Matrix3 {
 
     public static Matrix3[][] sideTurnRotations = new Matrix3[6][4];
 
+    // Rounded entries of each sideTurnRotations matrix, see axisCode
+    protected static int[] sideTurnCodes = new int[24];
+
     static {
         for (int side = 0; side < 6; side++)
-            for (int turn = 0; turn < 4; turn++)
+            for (int turn = 0; turn < 4; turn++) {
                 sideTurnRotations[side][turn] = sideRotations[side].mul(turnRotations[turn]);
+                sideTurnCodes[side * 4 + turn] = sideTurnRotations[side][turn].axisCode();
+            }
     }
 
+    // How far an entry may be from -1, 0 or 1 and still count as that value. Rotations
+    // built with sin and cos, and products of them, are off by around 1e-16.
+    protected static final double AXIS_EPSILON = 1e-6;
+
     public double m[][] = new double[][]{
             {1, 0, 0},
             {0, 1, 0},
             {0, 0, 1}
     };
 
+    // Index (side * 4 + turn) of the entry of sideTurnRotations this matrix equals to within
+    // rounding error, or -1
+    public int sideTurnIndex() {
+        int code = axisCode();
+        if (code >= 0)
+            for (int i = 0; i < sideTurnCodes.length; i++)
+                if (sideTurnCodes[i] == code)
+                    return i;
+        return -1;
+    }
+
+    // Entries rounded to -1, 0 or 1 and packed two bits each, or -1 if any entry is not
+    // close to one of those
+    protected int axisCode() {
+        int code = 0;
+        for (int i = 0; i < 3; i++)
+            for (int j = 0; j < 3; j++) {
+                double v = m[i][j];
+                long r = Math.round(v);
+                if (r < -1 || r > 1 || Math.abs(v - r) > AXIS_EPSILON)
+                    return -1;
+                code = code << 2 | (int) (r + 1);
+            }
+        return code;
+    }
+
     public static Matrix3 rotX(double deg) {
         return rot(deg, 1, 2);
     }
@@ -106,6 +141,16 @@ public class Matrix3 {
         );
     }
 
+    // Allocation-free form of mul, writing the result into out[0..2]
+    public void mul(double x, double y, double z, double[] out) {
+        double rx = x * m[0][0] + y * m[0][1] + z * m[0][2];
+        double ry = x * m[1][0] + y * m[1][1] + z * m[1][2];
+        double rz = x * m[2][0] + y * m[2][1] + z * m[2][2];
+        out[0] = rx;
+        out[1] = ry;
+        out[2] = rz;
+    }
+
     public Vector3 imul(double x, double y, double z) {
         //  Multiply by inverse, assuming an orthonormal matrix
         return new Vector3(
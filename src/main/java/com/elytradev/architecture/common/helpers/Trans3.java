@@ -171,6 +171,14 @@ public class Trans3 {
         return offset.add(rotation.mul(u.mul(scaling)));
     }
 
+    // Allocation-free form of p, writing the result into out[0..2]
+    public void p(double x, double y, double z, double[] out) {
+        rotation.mul(x * scaling, y * scaling, z * scaling, out);
+        out[0] += offset.x;
+        out[1] += offset.y;
+        out[2] += offset.z;
+    }
+
     public Vector3 ip(double x, double y, double z) {
         return ip(new Vector3(x, y, z));
     }
@@ -183,6 +191,11 @@ public class Trans3 {
         return v(new Vector3(x, y, z));
     }
 
+    // Allocation-free form of v, writing the result into out[0..2]
+    public void v(double x, double y, double z, double[] out) {
+        rotation.mul(x * scaling, y * scaling, z * scaling, out);
+    }
+
     public Vector3 iv(double x, double y, double z) {
         return iv(new Vector3(x, y, z));
     }
@@ -25,6 +25,7 @@
 package com.elytradev.architecture.common.item;
 
 import com.elytradev.architecture.common.block.BlockHelper;
+import com.elytradev.architecture.common.block.BlockStateCache;
 import com.elytradev.architecture.common.helpers.Utils;
 import com.elytradev.architecture.common.shape.Shape;
 import net.minecraft.block.Block;
@@ -58,9 +59,7 @@ public class ItemCladding extends ItemArchitecture {
     public IBlockState blockStateFromStack(ItemStack stack) {
         NBTTagCompound nbt = stack.getTagCompound();
         if (nbt != null) {
-            Block block = Block.getBlockFromName(nbt.getString("block"));
-            if (block != null)
-                return block.getStateFromMeta(stack.getItemDamage());
+            return BlockStateCache.getState(nbt.getString("block"), stack.getItemDamage());
         }
         return null;
     }
@@ -71,7 +70,7 @@ public class ItemCladding extends ItemArchitecture {
 
         NBTTagCompound tag = stack.getTagCompound();
         if (tag != null) {
-            Block block = Block.getBlockFromName(tag.getString("block"));
+            Block block = BlockStateCache.getBlock(tag.getString("block"));
             int meta = stack.getItemDamage();
             if (block != null)
                 lines.add(Utils.displayNameOfBlock(block, meta));
@@ -94,7 +93,7 @@ public class ItemCladding extends ItemArchitecture {
         if (tag == null)
             return super.getItemStackDisplayName(stack);
 
-        Block baseBlock = Block.getBlockFromName(tag.getString("block"));
+        Block baseBlock = BlockStateCache.getBlock(tag.getString("block"));
         return I18n.translateToLocal("item.architecturecraft.cladding.name") + ": " + Utils.displayNameOnlyOfBlock(baseBlock, stack.getMetadata());
     }
 }
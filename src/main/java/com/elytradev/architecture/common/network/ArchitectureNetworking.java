@@ -35,6 +35,8 @@ public class ArchitectureNetworking {
         NETWORK = NetworkContext.forChannel(ArchitectureMod.MOD_ID);
 
         NETWORK.register(SelectShapeMessage.class);
+        NETWORK.register(TileUpdatesMessage.class);
+        NETWORK.register(QueueJobMessage.class);
     }
 
 }
@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.common.network;
+
+import com.elytradev.architecture.common.shape.Shape;
+import com.elytradev.architecture.common.tile.ContainerSawbench;
+import com.elytradev.architecture.common.tile.TileSawbench;
+import com.elytradev.concrete.network.Message;
+import com.elytradev.concrete.network.NetworkContext;
+import com.elytradev.concrete.network.annotation.field.MarshalledAs;
+import com.elytradev.concrete.network.annotation.type.ReceivedOn;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraftforge.fml.relauncher.Side;
+
+/**
+ * Queues a job on the sawbench the player has open, or clears its queue if count is 0.
+ */
+@ReceivedOn(Side.SERVER)
+public class QueueJobMessage extends Message {
+
+    @MarshalledAs("int")
+    public int page, slot, count;
+
+    public QueueJobMessage(int page, int slot, int count) {
+        super(ArchitectureNetworking.NETWORK);
+        this.page = page;
+        this.slot = slot;
+        this.count = count;
+    }
+
+    public QueueJobMessage(NetworkContext ctx) {
+        super(ctx);
+    }
+
+    @Override
+    protected void handle(EntityPlayer player) {
+        if (!(player.openContainer instanceof ContainerSawbench))
+            return;
+        TileSawbench sawbench = ((ContainerSawbench) player.openContainer).getSawbench();
+        if (count <= 0)
+            sawbench.clearJobs();
+        else if (page >= 0 && page < TileSawbench.pages.length && slot >= 0 && slot < TileSawbench.pages[page].size()) {
+            Shape shape = TileSawbench.pages[page].get(slot);
+            sawbench.queueJob(shape, Math.min(count, TileSawbench.maxJobCount));
+        }
+    }
+}
@@ -36,9 +36,19 @@ import net.minecraft.world.World;
 import net.minecraftforge.common.DimensionManager;
 import net.minecraftforge.fml.relauncher.Side;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
 @ReceivedOn(Side.SERVER)
 public class SelectShapeMessage extends Message {
 
+    // Latest selection per player and sawbench, applied once at the end of the server tick
+    protected static final Map<SelectionKey, SelectShapeMessage> pending = new LinkedHashMap<>();
+
     public BlockPos sawPos;
     @MarshalledAs("int")
     public int page, slot, dim;
@@ -57,8 +67,26 @@ public class SelectShapeMessage extends Message {
 
     @Override
     protected void handle(EntityPlayer player) {
+        synchronized (pending) {
+            pending.put(new SelectionKey(player.getUniqueID(), dim, sawPos), this);
+        }
+    }
+
+    public static void applyPending() {
+        List<SelectShapeMessage> messages;
+        synchronized (pending) {
+            if (pending.isEmpty())
+                return;
+            messages = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        for (SelectShapeMessage message : messages)
+            message.apply();
+    }
+
+    protected void apply() {
         World world = DimensionManager.getWorld(dim);
-        if (world.isBlockLoaded(sawPos)) {
+        if (world != null && world.isBlockLoaded(sawPos)) {
             TileEntity tile = world.getTileEntity(sawPos);
             if (tile instanceof TileSawbench) {
                 TileSawbench sawbench = (TileSawbench) tile;
@@ -66,4 +94,29 @@ public class SelectShapeMessage extends Message {
             }
         }
     }
+
+    protected static class SelectionKey {
+        protected final UUID player;
+        protected final int dim;
+        protected final BlockPos pos;
+
+        public SelectionKey(UUID player, int dim, BlockPos pos) {
+            this.player = player;
+            this.dim = dim;
+            this.pos = pos;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof SelectionKey))
+                return false;
+            SelectionKey other = (SelectionKey) o;
+            return dim == other.dim && player.equals(other.player) && pos.equals(other.pos);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(player, dim, pos);
+        }
+    }
 }
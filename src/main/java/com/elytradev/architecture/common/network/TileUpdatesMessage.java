@@ -0,0 +1,72 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.common.network;
+
+import com.elytradev.architecture.common.tile.TileArchitecture;
+import com.elytradev.concrete.network.Message;
+import com.elytradev.concrete.network.NetworkContext;
+import com.elytradev.concrete.network.annotation.type.ReceivedOn;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.fml.relauncher.Side;
+
+/**
+ * Update tags for several tile entities in one chunk, sent by TileUpdateBatcher.
+ */
+@ReceivedOn(Side.CLIENT)
+public class TileUpdatesMessage extends Message {
+
+    public NBTTagCompound data;
+
+    public TileUpdatesMessage(NBTTagList tiles) {
+        super(ArchitectureNetworking.NETWORK);
+        this.data = new NBTTagCompound();
+        this.data.setTag("Tiles", tiles);
+    }
+
+    public TileUpdatesMessage(NetworkContext ctx) {
+        super(ctx);
+    }
+
+    @Override
+    protected void handle(EntityPlayer player) {
+        World world = player.world;
+        NBTTagList tiles = data.getTagList("Tiles", Constants.NBT.TAG_COMPOUND);
+        for (int i = 0; i < tiles.tagCount(); i++) {
+            NBTTagCompound nbt = tiles.getCompoundTagAt(i);
+            BlockPos pos = new BlockPos(nbt.getInteger("x"), nbt.getInteger("y"), nbt.getInteger("z"));
+            if (world.isBlockLoaded(pos)) {
+                TileEntity te = world.getTileEntity(pos);
+                if (te instanceof TileArchitecture)
+                    ((TileArchitecture) te).receiveUpdate(nbt);
+            }
+        }
+    }
+}
@@ -24,26 +24,46 @@
 
 package com.elytradev.architecture.common.proxy;
 
+import com.elytradev.architecture.client.render.model.BinaryModelFormat;
 import com.elytradev.architecture.client.render.model.IArchitectureModel;
+import com.elytradev.architecture.client.render.model.ModelRegistry;
 import com.elytradev.architecture.client.render.model.OBJSONModel;
 import com.elytradev.architecture.common.ArchitectureGuiHandler;
 import com.elytradev.architecture.common.ArchitectureLog;
 import com.elytradev.architecture.common.ArchitectureMod;
 import com.elytradev.architecture.common.network.ArchitectureNetworking;
-import com.google.common.collect.Maps;
+import com.elytradev.architecture.common.network.SelectShapeMessage;
+import com.elytradev.architecture.common.tile.MaterialPalette;
+import com.elytradev.architecture.common.tile.TileUpdateBatcher;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.world.ChunkDataEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.LoaderState;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
 import net.minecraftforge.fml.common.network.NetworkRegistry;
 
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class CommonProxy {
 
-    private Map<ResourceLocation, IArchitectureModel> modelCache = Maps.newHashMap();
+    // Opt in with -Darchitecturecraft.preloadModels=true
+    public static boolean preloadModels = Boolean.getBoolean("architecturecraft.preloadModels");
+    public static int preloadThreads = 4;
+
+    private ModelRegistry models = new ModelRegistry(this::loadModel);
+    private List<CompletableFuture<IArchitectureModel>> pendingModels = new ArrayList<>();
+    private ExecutorService preloadExecutor;
 
     public void preInit(FMLPreInitializationEvent e) {
         ArchitectureNetworking.setupNetwork();
@@ -60,6 +80,26 @@ public class CommonProxy {
         NetworkRegistry.INSTANCE.registerGuiHandler(ArchitectureMod.INSTANCE, new ArchitectureGuiHandler());
     }
 
+    @SubscribeEvent
+    public void onServerTick(TickEvent.ServerTickEvent e) {
+        if (e.phase == TickEvent.Phase.END) {
+            SelectShapeMessage.applyPending();
+            TileUpdateBatcher.flush();
+        }
+    }
+
+    @SubscribeEvent
+    public void onChunkSave(ChunkDataEvent.Save e) {
+        if (MaterialPalette.enabled && !e.getWorld().isRemote)
+            MaterialPalette.compactChunk(e.getWorld(), e.getData());
+    }
+
+    @SubscribeEvent
+    public void onWorldUnload(WorldEvent.Unload e) {
+        if (!e.getWorld().isRemote)
+            TileUpdateBatcher.discard(e.getWorld());
+    }
+
     public void registerRenderers(LoaderState.ModState modState) {
     }
 
@@ -67,15 +107,51 @@ public class CommonProxy {
     }
 
     public IArchitectureModel getModel(String name) {
-        ResourceLocation loc = modelLocation(name);
-        IArchitectureModel model = modelCache.get(loc);
-        if (model == null) {
-            long t0 = System.nanoTime();
-            model = OBJSONModel.fromResource(loc);
-            modelCache.put(loc, model);
-            long t1 = System.nanoTime();
-            ArchitectureLog.info("Loaded and cached {} in {} nanos.", name, t1 - t0);
+        return models.get(modelLocation(name));
+    }
+
+    public ModelRegistry getModelRegistry() {
+        return models;
+    }
+
+    /**
+     * Start parsing the named models on a bounded pool of background threads. getModel waits for
+     * a model that is still being parsed instead of parsing it a second time.
+     */
+    public void preloadModels(Collection<String> names) {
+        if (preloadExecutor == null) {
+            int threads = Math.max(1, Math.min(preloadThreads, Runtime.getRuntime().availableProcessors()));
+            preloadExecutor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                    .setNameFormat("ArchitectureCraft Model Loader %d").setDaemon(true).build());
         }
+        for (String name : names)
+            pendingModels.add(models.preload(modelLocation(name), preloadExecutor));
+    }
+
+    public void awaitPreloadedModels() {
+        if (preloadExecutor == null)
+            return;
+        long t0 = System.nanoTime();
+        for (CompletableFuture<IArchitectureModel> pending : pendingModels) {
+            try {
+                pending.join();
+            } catch (RuntimeException e) {
+                // Leave it to be reported by the first getModel call for it
+            }
+        }
+        int count = pendingModels.size();
+        pendingModels.clear();
+        preloadExecutor.shutdown();
+        preloadExecutor = null;
+        long t1 = System.nanoTime();
+        ArchitectureLog.info("Waited {} nanos for {} preloaded models: {}", t1 - t0, count, models);
+    }
+
+    protected IArchitectureModel loadModel(ResourceLocation loc) {
+        // Prefer the packed form generated at build time, fall back to parsing the json
+        IArchitectureModel model = BinaryModelFormat.fromResource(loc);
+        if (model == null)
+            model = OBJSONModel.fromResource(loc);
         return model;
     }
 
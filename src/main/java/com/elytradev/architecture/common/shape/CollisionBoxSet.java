@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.common.shape;
+
+import com.elytradev.architecture.common.helpers.Trans3;
+import com.elytradev.architecture.common.helpers.Utils;
+import com.elytradev.architecture.common.helpers.Vector3;
+import com.elytradev.architecture.common.tile.TileShape;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.RayTraceResult;
+import net.minecraft.util.math.Vec3d;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable collision boxes of a shape in one orientation, in block-local coordinates.
+ * Sets are shared between all tiles with the same shape, side, turn and offset.
+ */
+public class CollisionBoxSet {
+
+    protected static final Map<Long, CollisionBoxSet> sets = new ConcurrentHashMap<>();
+
+    public final long key;
+    public final AxisAlignedBB[] boxes;
+    public final AxisAlignedBB bounds;
+    // Union of the boxes, used to reject rays that miss all of them with a single test
+    protected final AxisAlignedBB hull;
+
+    protected CollisionBoxSet(long key, AxisAlignedBB[] boxes, AxisAlignedBB bounds) {
+        this.key = key;
+        this.boxes = boxes;
+        this.bounds = bounds;
+        this.hull = boxes.length > 1 ? Utils.unionOfBoxes(Arrays.asList(boxes)) : null;
+    }
+
+    public static CollisionBoxSet get(TileShape te, long key) {
+        return sets.computeIfAbsent(key, k -> build(te, k));
+    }
+
+    protected static CollisionBoxSet build(TileShape te, long key) {
+        // Same transformation as BlockShape's orientation handler, without going through the world
+        Trans3 t = Trans3.sideTurn(Vector3.blockCenter, te.getSide(), te.getTurn()).translate(te.getOffsetX(), 0, 0);
+        List<AxisAlignedBB> list = new ArrayList<>();
+        te.shape.kind.addCollisionBoxesToList(te, te.getWorld(), te.getPos(), null, null, t, list);
+        AxisAlignedBB bounds = te.shape.kind.getBounds(te, te.getWorld(), te.getPos(), null, null, t);
+        return new CollisionBoxSet(key, list.toArray(new AxisAlignedBB[0]), bounds);
+    }
+
+    public void addIntersectingBoxes(BlockPos pos, AxisAlignedBB clip, List result) {
+        double x = pos.getX(), y = pos.getY(), z = pos.getZ();
+        for (AxisAlignedBB box : boxes)
+            if (clip.intersects(box.minX + x, box.minY + y, box.minZ + z, box.maxX + x, box.maxY + y, box.maxZ + z))
+                result.add(box.offset(x, y, z));
+    }
+
+    public List<AxisAlignedBB> getGlobalBoxes(BlockPos pos) {
+        List<AxisAlignedBB> list = new ArrayList<>(boxes.length);
+        for (AxisAlignedBB box : boxes)
+            list.add(box.offset(pos));
+        return list;
+    }
+
+    // Ray trace in block-local coordinates, returning the hit in world coordinates
+    // with subHit set to the index of the box that was hit
+    public RayTraceResult rayTrace(BlockPos pos, Vec3d start, Vec3d end) {
+        Vec3d localStart = start.subtract(pos.getX(), pos.getY(), pos.getZ());
+        Vec3d localEnd = end.subtract(pos.getX(), pos.getY(), pos.getZ());
+        if (hull != null && missesHull(localStart, localEnd))
+            return null;
+        RayTraceResult nearest = null;
+        int nearestIndex = -1;
+        double nearestDistance = 0;
+        for (int i = 0; i < boxes.length; i++) {
+            RayTraceResult mp = boxes[i].calculateIntercept(localStart, localEnd);
+            if (mp != null) {
+                double d = localStart.squareDistanceTo(mp.hitVec);
+                if (nearest == null || d < nearestDistance) {
+                    nearest = mp;
+                    nearestIndex = i;
+                    nearestDistance = d;
+                }
+            }
+        }
+        if (nearest == null)
+            return null;
+        RayTraceResult result = new RayTraceResult(
+                nearest.hitVec.add(pos.getX(), pos.getY(), pos.getZ()), nearest.sideHit, pos);
+        result.subHit = nearestIndex;
+        return result;
+    }
+
+    // A segment with both ends outside a box that crosses none of its faces cannot touch it
+    protected boolean missesHull(Vec3d start, Vec3d end) {
+        return !inHull(start) && !inHull(end) && hull.calculateIntercept(start, end) == null;
+    }
+
+    protected boolean inHull(Vec3d v) {
+        return v.x >= hull.minX && v.x <= hull.maxX
+                && v.y >= hull.minY && v.y <= hull.maxY
+                && v.z >= hull.minZ && v.z <= hull.maxZ;
+    }
+
+}
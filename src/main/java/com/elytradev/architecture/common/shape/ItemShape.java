@@ -25,6 +25,7 @@
 package com.elytradev.architecture.common.shape;
 
 import com.elytradev.architecture.common.ArchitectureContent;
+import com.elytradev.architecture.common.block.BlockStateCache;
 import com.elytradev.architecture.common.helpers.Utils;
 import com.elytradev.architecture.common.helpers.Vector3;
 import com.elytradev.architecture.common.tile.TileShape;
@@ -106,7 +107,7 @@ public class ItemShape extends ItemBlock {
                 lines.set(0, shape.title);
             else
                 lines.set(0, lines.get(0) + " (" + id + ")");
-            Block baseBlock = Block.getBlockFromName(tag.getString("BaseName"));
+            Block baseBlock = BlockStateCache.getBlock(tag.getString("BaseName"));
             int baseMetadata = tag.getInteger("BaseData");
             if (baseBlock != null)
                 lines.add(Utils.displayNameOfBlock(baseBlock, baseMetadata));
@@ -151,7 +152,7 @@ public class ItemShape extends ItemBlock {
 
         int id = tag.getInteger("Shape");
         Shape shape = Shape.forId(id);
-        Block baseBlock = Block.getBlockFromName(tag.getString("BaseName"));
+        Block baseBlock = BlockStateCache.getBlock(tag.getString("BaseName"));
         int baseMetadata = tag.getInteger("BaseData");
         return shape.title + ": " + Utils.displayNameOnlyOfBlock(baseBlock, baseMetadata);
     }
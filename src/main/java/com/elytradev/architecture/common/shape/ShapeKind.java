@@ -88,6 +88,16 @@ public abstract class ShapeKind {
         return 0;
     }
 
+    // Whether collision boxes depend only on shape and orientation, so they can be shared
+    public boolean hasStaticCollisionBoxes() {
+        return true;
+    }
+
+    // How many rings of connected neighbours the rendered geometry depends on
+    public int renderNeighbourDepth() {
+        return 1;
+    }
+
     public abstract void renderShape(TileShape te,
                                      ITexture[] textures, RenderTargetBase target, Trans3 t,
                                      boolean renderBase, boolean renderSecondary,
@@ -356,6 +366,15 @@ public abstract class ShapeKind {
             this.profiles = profiles;
         }
 
+        public String getModelName() {
+            return modelName;
+        }
+
+        @Override
+        public int renderNeighbourDepth() {
+            return 0;
+        }
+
         @Override
         public boolean secondaryDefaultsToBase() {
             return true;
@@ -423,6 +442,18 @@ public abstract class ShapeKind {
         public EnumFacing[] frameOrientations;
         public Trans3[] frameTrans;
 
+        @Override
+        public int renderNeighbourDepth() {
+            // Frame corners depend on the neighbours of connected windows
+            return 2;
+        }
+
+        @Override
+        public boolean hasStaticCollisionBoxes() {
+            // Frames depend on connected neighbours, the glass on the secondary material
+            return false;
+        }
+
         @Override
         public boolean orientOnPlacement(EntityPlayer player, TileShape te, TileShape nte, EnumFacing otherFace,
                                          Vector3 hit) {
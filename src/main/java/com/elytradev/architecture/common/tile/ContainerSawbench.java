@@ -31,11 +31,15 @@ import net.minecraft.inventory.Container;
 import net.minecraft.inventory.IContainerListener;
 import net.minecraft.inventory.Slot;
 import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.network.Packet;
 import net.minecraft.network.play.server.SPacketSetSlot;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
+import java.util.List;
+
 public class ContainerSawbench extends BaseContainer {
 
     public static int guWidth = 242;
@@ -45,9 +49,19 @@ public class ContainerSawbench extends BaseContainer {
     public static int outputSlotLeft = 12;
     public static int outputSlotTop = 57;
 
+    // Shift-clicking the result moves as many batches as fit in one step
+    public static boolean bulkCrafting = true;
+    // When at least this many slots change in one tick they are resent in one packet
+    public static int windowItemsThreshold = 3;
+
     TileSawbench te;
     SlotRange sawbenchSlotRange;
     Slot materialSlot, resultSlot;
+    int sawbenchVersion = -1;
+    // Per slot, the tag of the stack last compared and its hash
+    NBTTagCompound[] seenTags;
+    int[] seenTagHashes;
+    int[] changedSlots;
 
     public ContainerSawbench(EntityPlayer player, TileSawbench te) {
         super(guWidth, guiHeight);
@@ -57,6 +71,9 @@ public class ContainerSawbench extends BaseContainer {
         resultSlot = addSlotToContainer(new SlotSawbenchResult(te, 1, outputSlotLeft, outputSlotTop));
         sawbenchSlotRange.end();
         addPlayerSlots(player, 8, guiHeight - 81);
+        seenTags = new NBTTagCompound[inventorySlots.size()];
+        seenTagHashes = new int[inventorySlots.size()];
+        changedSlots = new int[inventorySlots.size()];
     }
 
     public static Container create(EntityPlayer player, World world, BlockPos pos) {
@@ -67,6 +84,10 @@ public class ContainerSawbench extends BaseContainer {
             return null;
     }
 
+    public TileSawbench getSawbench() {
+        return te;
+    }
+
     @Override
     public boolean canInteractWith(EntityPlayer player) {
         return this.te.isUsableByPlayer(player);
@@ -80,25 +101,79 @@ public class ContainerSawbench extends BaseContainer {
             return playerSlotRange;
     }
 
+    // Selection changes only reach players already viewing the sawbench, so
+    // bring a newly opened container up to date with the tile first
+    @Override
+    public void addListener(IContainerListener listener) {
+        if (listener instanceof EntityPlayerMP && !te.getWorld().isRemote) {
+            Packet<?> packet = te.getUpdatePacket();
+            if (packet != null)
+                ((EntityPlayerMP) listener).connection.sendPacket(packet);
+        }
+        super.addListener(listener);
+    }
+
     @Override
     public void detectAndSendChanges() {
+        // Sawbench slot tags only need comparing after its inventory has changed
+        boolean sawbenchChanged = te.inventoryVersion != sawbenchVersion;
+        sawbenchVersion = te.inventoryVersion;
+        int numChanged = 0;
         for (int i = 0; i < this.inventorySlots.size(); ++i) {
             ItemStack newstack = this.inventorySlots.get(i).getStack();
-            ItemStack oldstack = this.inventoryItemStacks.get(i);
-            if (!ItemStack.areItemStacksEqual(oldstack, newstack)) {
-                oldstack = newstack.isEmpty() ? ItemStack.EMPTY : newstack.copy();
-                this.inventoryItemStacks.set(i, oldstack);
+            boolean checkTag = sawbenchChanged || !sawbenchSlotRange.contains(i);
+            if (stackChanged(i, newstack, checkTag)) {
+                this.inventoryItemStacks.set(i, newstack.isEmpty() ? ItemStack.EMPTY : newstack.copy());
+                rememberTag(i, newstack);
+                changedSlots[numChanged++] = i;
+            }
+        }
+        if (numChanged >= windowItemsThreshold) {
+            for (IContainerListener listener : listeners)
+                listener.sendAllContents(this, inventoryItemStacks);
+        } else {
+            for (int k = 0; k < numChanged; k++) {
+                int i = changedSlots[k];
+                ItemStack stack = inventoryItemStacks.get(i);
                 for (Object listener : listeners) {
                     if (listener instanceof EntityPlayerMP) {
                         ((EntityPlayerMP) listener).connection.sendPacket(
-                                new SPacketSetSlot(windowId, i, newstack));
+                                new SPacketSetSlot(windowId, i, stack));
                     } else
-                        ((IContainerListener) listener).sendSlotContents(this, i, newstack);
+                        ((IContainerListener) listener).sendSlotContents(this, i, stack);
                 }
             }
         }
     }
 
+    // Compares against the stack last sent. Item, count and damage are checked
+    // directly, and the tag only by hash while it is still the same tag object.
+    protected boolean stackChanged(int i, ItemStack newstack, boolean checkTag) {
+        ItemStack oldstack = inventoryItemStacks.get(i);
+        if (oldstack.isEmpty() || newstack.isEmpty())
+            return oldstack.isEmpty() != newstack.isEmpty();
+        if (oldstack.getItem() != newstack.getItem() || oldstack.getCount() != newstack.getCount()
+                || oldstack.getMetadata() != newstack.getMetadata())
+            return true;
+        if (!checkTag)
+            return false;
+        NBTTagCompound tag = newstack.getTagCompound();
+        if (tag == seenTags[i])
+            return (tag != null ? tag.hashCode() : 0) != seenTagHashes[i];
+        if (!ItemStack.areItemStackTagsEqual(oldstack, newstack))
+            return true;
+        rememberTag(i, newstack);
+        return false;
+    }
+
+    // Must be called whenever the stack last sent for a slot is replaced, so the
+    // remembered tag always describes that stack
+    protected void rememberTag(int i, ItemStack stack) {
+        NBTTagCompound tag = stack.getTagCompound();
+        seenTags[i] = tag;
+        seenTagHashes[i] = tag != null ? tag.hashCode() : 0;
+    }
+
     //
     //   Client
     //
@@ -113,6 +188,14 @@ public class ContainerSawbench extends BaseContainer {
             super.putStackInSlot(i, stack);
     }
 
+    // Window items packets, sent when several slots change at once, must not
+    // trigger crafting behaviour either
+    @Override
+    public void setAll(List<ItemStack> stacks) {
+        for (int i = 0; i < stacks.size(); ++i)
+            putStackInSlot(i, stacks.get(i));
+    }
+
     // Default transferStackInSlot does not invoke decrStackSize, so we need this
     // to get pending material used.
     @Override
@@ -125,6 +208,8 @@ public class ContainerSawbench extends BaseContainer {
     }
 
     protected ItemStack transferStackInResultSlot(EntityPlayer player, int index) {
+        if (bulkCrafting)
+            return transferBatchesInResultSlot(player);
         boolean materialWasPending = te.pendingMaterialUsage;
         ItemStack origMaterialStack = te.usePendingMaterial();
         ItemStack result = super.transferStackInSlot(player, index);
@@ -132,6 +217,44 @@ public class ContainerSawbench extends BaseContainer {
             te.returnUnusedMaterial(origMaterialStack);
         return result;
     }
+
+    protected ItemStack transferBatchesInResultSlot(EntityPlayer player) {
+        ItemStack result = resultSlot.getStack();
+        int perBatch = te.resultMultiple();
+        if (result.isEmpty() || perBatch <= 0 || result.getCount() != perBatch)
+            return ItemStack.EMPTY;
+        int batches = Math.min(te.availableBatches(), spaceInRange(result, playerSlotRange) / perBatch);
+        ItemStack stack = te.takeBatches(batches);
+        if (stack.isEmpty())
+            return ItemStack.EMPTY;
+        ItemStack taken = stack.copy();
+        // mergeItemStack fills at most one empty slot per call, so feed it the
+        // take one stack's worth at a time
+        int maxSize = stack.getMaxStackSize();
+        while (!stack.isEmpty()) {
+            ItemStack part = stack.splitStack(Math.min(maxSize, stack.getCount()));
+            mergeItemStackIntoRange(part, playerSlotRange);
+            if (!part.isEmpty())
+                player.dropItem(part, false);
+        }
+        return taken;
+    }
+
+    // Room for the given item in the slots that mergeItemStackIntoRange fills
+    protected int spaceInRange(ItemStack stack, SlotRange range) {
+        int space = 0;
+        for (int i = range.firstSlot; i < range.numSlots; i++) {
+            Slot slot = getSlot(i);
+            ItemStack existing = slot.getStack();
+            int limit = Math.min(slot.getItemStackLimit(stack), stack.getMaxStackSize());
+            if (existing.isEmpty()) {
+                if (slot.isItemValid(stack))
+                    space += limit;
+            } else if (ItemStack.areItemsEqual(existing, stack) && ItemStack.areItemStackTagsEqual(existing, stack))
+                space += Math.max(0, limit - existing.getCount());
+        }
+        return space;
+    }
 }
 
 class SlotSawbench extends Slot {
@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.common.tile;
+
+import com.elytradev.architecture.common.block.BlockStateCache;
+import com.elytradev.architecture.common.utils.MiscUtils;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.world.World;
+import net.minecraft.world.storage.WorldSavedData;
+import net.minecraftforge.common.util.Constants;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-dimension palette of shape materials. When enabled, shapes saved with their chunk
+ * store a small index into the palette instead of the block registry name and metadata,
+ * and each distinct material is looked up in the block registry once per load rather
+ * than once per tile. Entries are only ever appended, so indices stay valid.
+ * <p>
+ * Indices only mean anything in the dimension that wrote them, so they are substituted
+ * into the chunk data as it is saved. Tile NBT taken any other way (structure templates,
+ * picked blocks, client sync) keeps the full names.
+ */
+public class MaterialPalette extends WorldSavedData {
+
+    public static final String NAME = "architecturecraft_palette";
+
+    public static boolean enabled = false;
+
+    protected final List<String> names = new ArrayList<>();
+    protected final List<Integer> metas = new ArrayList<>();
+    protected final Map<String, Integer> indices = new HashMap<>();
+    protected final List<IBlockState> states = new ArrayList<>();
+
+    public MaterialPalette(String name) {
+        super(name);
+    }
+
+    public static MaterialPalette forWorld(World world) {
+        return MiscUtils.getWorldData(world, MaterialPalette.class, NAME);
+    }
+
+    // Replace the material names of the shapes in a chunk's saved data with palette indices
+    public static void compactChunk(World world, NBTTagCompound chunkData) {
+        MaterialPalette palette = null;
+        String shapeId = String.valueOf(TileEntity.getKey(TileShape.class));
+        NBTTagList tiles = chunkData.getCompoundTag("Level").getTagList("TileEntities", Constants.NBT.TAG_COMPOUND);
+        for (int i = 0; i < tiles.tagCount(); i++) {
+            NBTTagCompound tile = tiles.getCompoundTagAt(i);
+            if (!shapeId.equals(tile.getString("id")))
+                continue;
+            if (palette == null)
+                palette = forWorld(world);
+            palette.compact(tile, "BaseName", "BaseData");
+            palette.compact(tile, "Name2", "Data2");
+        }
+    }
+
+    protected void compact(NBTTagCompound nbt, String nameField, String dataField) {
+        if (!nbt.hasKey(nameField, Constants.NBT.TAG_STRING))
+            return;
+        nbt.setInteger(nameField + "Index", indexOf(nbt.getString(nameField), nbt.getInteger(dataField)));
+        nbt.removeTag(nameField);
+        nbt.removeTag(dataField);
+    }
+
+    public synchronized int indexOf(String name, int meta) {
+        String key = name + "@" + meta;
+        Integer index = indices.get(key);
+        if (index == null) {
+            index = add(name, meta);
+            markDirty();
+        }
+        return index;
+    }
+
+    // Returns null for an index this palette does not contain
+    public synchronized IBlockState getState(int index) {
+        if (index < 0 || index >= names.size())
+            return null;
+        IBlockState state = states.get(index);
+        if (state == null) {
+            state = BlockStateCache.getState(names.get(index), metas.get(index));
+            if (state == null)
+                return null;
+            states.set(index, state);
+        }
+        return state;
+    }
+
+    protected int add(String name, int meta) {
+        int index = names.size();
+        names.add(name);
+        metas.add(meta);
+        states.add(null);
+        indices.put(name + "@" + meta, index);
+        return index;
+    }
+
+    @Override
+    public synchronized void readFromNBT(NBTTagCompound nbt) {
+        NBTTagList list = nbt.getTagList("Entries", Constants.NBT.TAG_COMPOUND);
+        for (int i = 0; i < list.tagCount(); i++) {
+            NBTTagCompound entry = list.getCompoundTagAt(i);
+            add(entry.getString("Name"), entry.getInteger("Data"));
+        }
+    }
+
+    @Override
+    public synchronized NBTTagCompound writeToNBT(NBTTagCompound nbt) {
+        NBTTagList list = new NBTTagList();
+        for (int i = 0; i < names.size(); i++) {
+            NBTTagCompound entry = new NBTTagCompound();
+            entry.setString("Name", names.get(i));
+            entry.setInteger("Data", metas.get(i));
+            list.appendTag(entry);
+        }
+        nbt.setTag("Entries", list);
+        return nbt;
+    }
+
+}
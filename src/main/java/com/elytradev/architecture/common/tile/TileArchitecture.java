@@ -32,33 +32,21 @@ import com.elytradev.architecture.common.helpers.Trans3;
 import com.elytradev.architecture.common.helpers.Vector3;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
-import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.network.NetworkManager;
 import net.minecraft.network.Packet;
 import net.minecraft.network.play.server.SPacketUpdateTileEntity;
-import net.minecraft.server.management.PlayerChunkMap;
 import net.minecraft.server.management.PlayerChunkMapEntry;
-import net.minecraft.server.management.PlayerList;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.SoundCategory;
 import net.minecraft.util.SoundEvent;
-import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.WorldServer;
 import net.minecraftforge.common.ForgeChunkManager;
 import net.minecraftforge.common.ForgeChunkManager.Ticket;
-import net.minecraftforge.fml.common.FMLCommonHandler;
-
-import java.lang.reflect.Field;
-
-import static com.elytradev.architecture.common.utils.ReflectionUtils.*;
 
 public abstract class TileArchitecture extends TileEntity {
 
-    protected static Field changedSectionFilter = getFieldDef(
-            classForName("net.minecraft.server.management.PlayerChunkMapEntry"),
-            "changedSectionFilter", "field_187288_h");
     public Ticket chunkTicket;
     protected boolean updateChunk;
     private byte side;
@@ -79,19 +67,17 @@ public abstract class TileArchitecture extends TileEntity {
     }
 
     public void sendTileEntityUpdate() {
+        if (TileUpdateBatcher.enabled) {
+            TileUpdateBatcher.schedule(this);
+            return;
+        }
         Packet packet = getUpdatePacket();
         if (packet != null) {
-            BlockPos pos = getPos();
-            int x = pos.getX() >> 4;
-            int z = pos.getZ() >> 4;
             WorldServer world = (WorldServer) getWorld();
-            PlayerList cm = FMLCommonHandler.instance().getMinecraftServerInstance().getPlayerList();
-            PlayerChunkMap pm = world.getPlayerChunkMap();
-            for (EntityPlayerMP player : cm.getPlayers()) {
-                if (pm.isPlayerWatchingChunk(player, x, z)) {
-                    player.connection.sendPacket(packet);
-                }
-            }
+            PlayerChunkMapEntry entry = world.getPlayerChunkMap().getEntry(pos.getX() >> 4, pos.getZ() >> 4);
+            TileUpdateBatcher.countUpdate(world, pos, 1, entry != null ? 1 : 0);
+            if (entry != null)
+                entry.sendPacket(packet);
         }
     }
 
@@ -138,16 +124,21 @@ public abstract class TileArchitecture extends TileEntity {
     public NBTTagCompound getUpdateTag() {
         NBTTagCompound nbt = new NBTTagCompound();
         if (syncWithClient())
-            writeToNBT(nbt);
+            writeSyncTag(nbt);
         return nbt;
     }
 
+    @Override
+    public void handleUpdateTag(NBTTagCompound nbt) {
+        readSyncTag(nbt);
+    }
+
     @Override
     public SPacketUpdateTileEntity getUpdatePacket() {
         //ArchitectureLog.info("BaseTileEntity.getDescriptionPacket for %s\n", this);
         if (syncWithClient()) {
             NBTTagCompound nbt = new NBTTagCompound();
-            writeToNBT(nbt);
+            writeSyncTag(nbt);
             if (updateChunk) {
                 nbt.setBoolean("updateChunk", true);
                 updateChunk = false;
@@ -157,10 +148,19 @@ public abstract class TileArchitecture extends TileEntity {
             return null;
     }
 
+    // Same content as getUpdatePacket, for a TileUpdatesMessage batch
+    public NBTTagCompound getBatchedUpdateTag() {
+        SPacketUpdateTileEntity packet = getUpdatePacket();
+        return packet != null ? packet.getNbtCompound() : null;
+    }
+
     @Override
     public void onDataPacket(NetworkManager net, SPacketUpdateTileEntity pkt) {
-        NBTTagCompound nbt = pkt.getNbtCompound();
-        readFromNBT(nbt);
+        receiveUpdate(pkt.getNbtCompound());
+    }
+
+    public void receiveUpdate(NBTTagCompound nbt) {
+        readSyncTag(nbt);
         if (nbt.getBoolean("updateChunk"))
             world.markBlockRangeForRenderUpdate(pos, pos);
     }
@@ -169,26 +169,34 @@ public abstract class TileArchitecture extends TileEntity {
         return true;
     }
 
+    // Tag sent to clients in chunk data and update packets. Subclasses may
+    // use a more compact form than the full saved tag.
+    protected NBTTagCompound writeSyncTag(NBTTagCompound nbt) {
+        return writeToNBT(nbt);
+    }
+
+    protected void readSyncTag(NBTTagCompound nbt) {
+        readFromNBT(nbt);
+    }
+
+    // Only the vanilla part of the tag: id, position and Forge data
+    protected NBTTagCompound writeTileEntityTag(NBTTagCompound nbt) {
+        return super.writeToNBT(nbt);
+    }
+
+    protected void readTileEntityTag(NBTTagCompound nbt) {
+        super.readFromNBT(nbt);
+    }
+
     public void markBlockForUpdate() {
         updateChunk = true;
+        // The chunk map resends the block along with this tile, so a batched
+        // send of the tile would only duplicate it
+        if (!world.isRemote)
+            TileUpdateBatcher.cancel(this);
         BlockHelper.markBlockForUpdate(world, pos);
     }
 
-    public void markForUpdate() {
-        if (!world.isRemote) {
-            int x = pos.getX();
-            int y = pos.getY();
-            int z = pos.getZ();
-            PlayerChunkMap pm = ((WorldServer) world).getPlayerChunkMap();
-            PlayerChunkMapEntry entry = pm.getEntry(x >> 4, z >> 4);
-            if (entry != null) {
-                int oldFlags = getIntField(entry, changedSectionFilter);
-                entry.blockChanged(x & 0xf, y, z & 0xf);
-                setIntField(entry, changedSectionFilter, oldFlags);
-            }
-        }
-    }
-
     public void playSoundEffect(SoundEvent name, float volume, float pitch) {
         world.playSound(null, pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5, name, SoundCategory.BLOCKS, volume, pitch);
     }
@@ -234,9 +242,11 @@ public abstract class TileArchitecture extends TileEntity {
     public void writeContentsToNBT(NBTTagCompound nbt) {
     }
 
+    // Resends only the tile entity data, never the block or its chunk section
     public void markChanged() {
         markDirty();
-        markForUpdate();
+        if (!world.isRemote)
+            sendTileEntityUpdate();
     }
 
     public void markBlockChanged() {
@@ -28,16 +28,34 @@ import com.elytradev.architecture.common.shape.Shape;
 import com.elytradev.architecture.common.shape.ShapePage;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockSlab;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.init.Blocks;
 import net.minecraft.inventory.IInventory;
 import net.minecraft.inventory.InventoryBasic;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemBlock;
 import net.minecraft.item.ItemStack;
+import net.minecraft.inventory.InventoryHelper;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.network.Packet;
 import net.minecraft.util.EnumFacing;
+import net.minecraft.util.ITickable;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemHandlerHelper;
+import net.minecraftforge.items.ItemStackHandler;
 
-public class TileSawbench extends TileArchitectureInventory {
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class TileSawbench extends TileArchitectureInventory implements ITickable {
 
     final public static int materialSlot = 0;
     final public static int resultSlot = 1;
@@ -47,6 +65,17 @@ public class TileSawbench extends TileArchitectureInventory {
 
     public static boolean allowAutomation = false;
 
+    // Queued jobs are crafted into the output buffer at up to this many batches per tick
+    public static int craftsPerTick = 4;
+    public static int outputBufferSize = 9;
+    public static int maxQueuedJobs = 16;
+    public static int maxJobCount = 1024;
+    // Viewers see the remaining count of the current job at most this often, in ticks
+    public static int jobSyncInterval = 10;
+
+    protected static final Map<TemplateKey, ItemStack> resultTemplates = new ConcurrentHashMap<>();
+    protected static final Map<Block, Boolean> acceptableMaterials = new ConcurrentHashMap<>();
+
     public static ShapePage[] pages = {
             new ShapePage("Roofing",
                     Shape.ROOF_TILE, Shape.ROOF_OUTER_CORNER, Shape.ROOF_INNER_CORNER,
@@ -78,10 +107,74 @@ public class TileSawbench extends TileArchitectureInventory {
     };
 
     public IInventory inventory = new InventoryBasic("Items", false, 2);
+    public int inventoryVersion; // Incremented whenever a slot may have changed
     public int selectedPage = 0;
     public int[] selectedSlots = new int[pages.length];
     public boolean pendingMaterialUsage = false; // Material for the stack in the result slot
     // has not yet been removed from the material slot
+    public final Deque<Job> jobs = new ArrayDeque<>();
+    protected boolean jobSyncPending;
+    protected long nextJobSync;
+    public final ItemStackHandler outputBuffer = new ItemStackHandler(outputBufferSize) {
+        @Override
+        protected void onContentsChanged(int slot) {
+            markDirty();
+        }
+    };
+    protected final IItemHandler topItemHandler = new AutomationItemHandler(EnumFacing.UP);
+    protected final IItemHandler bottomItemHandler = new AutomationItemHandler(EnumFacing.DOWN);
+
+    public static class Job {
+        public final Shape shape;
+        public int count; // Items still to be produced
+
+        public Job(Shape shape, int count) {
+            this.shape = shape;
+            this.count = count;
+        }
+    }
+
+    // Material block, material damage value and shape of a result template
+    protected static class TemplateKey {
+        protected final Block block;
+        protected final int meta;
+        protected final Shape shape;
+
+        protected TemplateKey(Block block, int meta, Shape shape) {
+            this.block = block;
+            this.meta = meta;
+            this.shape = shape;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof TemplateKey))
+                return false;
+            TemplateKey other = (TemplateKey) o;
+            return block == other.block && meta == other.meta && shape == other.shape;
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(block) * 31 + meta) * 31 + shape.ordinal();
+        }
+    }
+
+    // Blocks may be replaced when the registry is remapped
+    public static void clearResultTemplates() {
+        resultTemplates.clear();
+    }
+
+    public TileSawbench() {
+        ((InventoryBasic) inventory).addInventoryChangeListener(inv -> inventoryVersion++);
+    }
+
+    @Override
+    public void markDirty() {
+        // Slots modify their stacks in place and then mark the inventory dirty
+        inventoryVersion++;
+        super.markDirty();
+    }
 
     public Shape getSelectedShape() {
         if (selectedPage >= 0 && selectedPage < pages.length) {
@@ -140,6 +233,261 @@ public class TileSawbench extends TileArchitectureInventory {
         }
     }
 
+    // Number of whole batches that the material slot can pay for, including any
+    // batch whose material is still pending. None while the result slot holds a
+    // partial batch left behind by taking part of it.
+    public int availableBatches() {
+        int m = materialMultiple();
+        if (m <= 0 || !hasWholeResultBatch())
+            return 0;
+        int batches = getStackInSlot(materialSlot).getCount() / m;
+        return pendingMaterialUsage ? batches : batches + 1;
+    }
+
+    protected boolean hasWholeResultBatch() {
+        ItemStack result = getStackInSlot(resultSlot);
+        return !result.isEmpty() && result.getCount() == resultMultiple();
+    }
+
+    // Only players using this sawbench's GUI need to see the new selection. Anyone
+    // else gets it with the chunk.
+    protected void sendToContainerViewers() {
+        if (world.isRemote)
+            return;
+        Packet<?> packet = null;
+        for (EntityPlayer player : world.playerEntities) {
+            if (player instanceof EntityPlayerMP && player.openContainer instanceof ContainerSawbench
+                    && ((ContainerSawbench) player.openContainer).te == this) {
+                if (packet == null)
+                    packet = getUpdatePacket();
+                ((EntityPlayerMP) player).connection.sendPacket(packet);
+            }
+        }
+    }
+
+    // Take the given number of batches as a single stack, using their material and
+    // refilling the result slot once.
+    public ItemStack takeBatches(int batches) {
+        if (batches <= 0 || batches > availableBatches())
+            return ItemStack.EMPTY;
+        ItemStack result = getStackInSlot(resultSlot).copy();
+        int paid = pendingMaterialUsage ? 0 : 1;
+        if (batches > paid)
+            inventory.decrStackSize(materialSlot, (batches - paid) * materialMultiple());
+        pendingMaterialUsage = false;
+        inventory.setInventorySlotContents(resultSlot, ItemStack.EMPTY);
+        updateResultSlot();
+        markDirty();
+        result.setCount(batches * resultMultiple());
+        return result;
+    }
+
+    // Queue a job to cut count items of the given shape. Jobs are queued from the
+    // sawbench GUI by QueueJobMessage, and may be queued by other mods.
+    public void queueJob(Shape shape, int count) {
+        if (shape != null && count > 0 && jobs.size() < maxQueuedJobs) {
+            jobs.add(new Job(shape, count));
+            markDirty();
+            sendToContainerViewers();
+        }
+    }
+
+    public void clearJobs() {
+        if (!jobs.isEmpty()) {
+            jobs.clear();
+            markDirty();
+            sendToContainerViewers();
+        }
+    }
+
+    @Override
+    public void update() {
+        if (world.isRemote || jobs.isEmpty())
+            return;
+        int crafts = 0;
+        while (crafts < craftsPerTick && !jobs.isEmpty()) {
+            Job job = jobs.peek();
+            if (!craftIntoBuffer(job.shape))
+                break;
+            crafts++;
+            job.count -= job.shape.itemsProduced;
+            jobSyncPending = true;
+            if (job.count <= 0) {
+                jobs.poll();
+                syncJobs();
+            }
+        }
+        if (crafts > 0) {
+            updateResultSlot();
+            markDirty();
+        }
+        if (jobSyncPending && world.getTotalWorldTime() >= nextJobSync)
+            syncJobs();
+    }
+
+    protected void syncJobs() {
+        jobSyncPending = false;
+        nextJobSync = world.getTotalWorldTime() + jobSyncInterval;
+        sendToContainerViewers();
+    }
+
+    // Craft one batch of the given shape from the material slot into the output
+    // buffer, leaving material reserved for a pending result in place.
+    protected boolean craftIntoBuffer(Shape shape) {
+        ItemStack result = makeResultStack(shape);
+        if (result.isEmpty())
+            return false;
+        int reserved = pendingMaterialUsage ? materialMultiple() : 0;
+        int needed = materialMultiple(shape);
+        if (getStackInSlot(materialSlot).getCount() < reserved + needed)
+            return false;
+        if (!ItemHandlerHelper.insertItemStacked(outputBuffer, result, true).isEmpty())
+            return false;
+        inventory.decrStackSize(materialSlot, needed);
+        ItemHandlerHelper.insertItemStacked(outputBuffer, result, false);
+        return true;
+    }
+
+    public boolean isOutputBufferEmpty() {
+        for (int i = 0; i < outputBuffer.getSlots(); i++)
+            if (!outputBuffer.getStackInSlot(i).isEmpty())
+                return false;
+        return true;
+    }
+
+    public void dropOutputBuffer() {
+        for (int i = 0; i < outputBuffer.getSlots(); i++) {
+            ItemStack stack = outputBuffer.getStackInSlot(i);
+            if (!stack.isEmpty())
+                InventoryHelper.spawnItemStack(world, pos.getX(), pos.getY(), pos.getZ(), stack);
+            outputBuffer.setStackInSlot(i, ItemStack.EMPTY);
+        }
+    }
+
+    @Override
+    public boolean hasCapability(Capability<?> capability, @Nullable EnumFacing facing) {
+        return capability == CapabilityItemHandler.ITEM_HANDLER_CAPABILITY || super.hasCapability(capability, facing);
+    }
+
+    @Override
+    @Nullable
+    public <T> T getCapability(Capability<T> capability, @Nullable EnumFacing facing) {
+        if (capability == CapabilityItemHandler.ITEM_HANDLER_CAPABILITY)
+            return CapabilityItemHandler.ITEM_HANDLER_CAPABILITY.cast(
+                    facing == EnumFacing.DOWN ? bottomItemHandler : topItemHandler);
+        return super.getCapability(capability, facing);
+    }
+
+    /**
+     * Item handler following the same rules as canInsertItem and canExtractItem: material goes in from any
+     * side and comes out from any side but the bottom, results and the output buffer come out of the bottom.
+     * Slots are the material slot, the result slot and then the output buffer. Results are taken as many
+     * whole batches at a time as the requested amount allows; a request for less than a batch takes one
+     * batch and leaves the remainder in the output buffer.
+     */
+    protected class AutomationItemHandler implements IItemHandler {
+
+        protected final EnumFacing side;
+
+        public AutomationItemHandler(EnumFacing side) {
+            this.side = side;
+        }
+
+        @Override
+        public int getSlots() {
+            return 2 + outputBuffer.getSlots();
+        }
+
+        @Override
+        public ItemStack getStackInSlot(int slot) {
+            if (slot < 2)
+                return TileSawbench.this.getStackInSlot(slot);
+            return outputBuffer.getStackInSlot(slot - 2);
+        }
+
+        @Override
+        public ItemStack insertItem(int slot, ItemStack stack, boolean simulate) {
+            if (slot != materialSlot || stack.isEmpty() || !(stack.getItem() instanceof ItemBlock))
+                return stack;
+            ItemStack existing = TileSawbench.this.getStackInSlot(materialSlot);
+            int limit = Math.min(getInventoryStackLimit(), stack.getMaxStackSize());
+            if (!existing.isEmpty()) {
+                if (!ItemHandlerHelper.canItemStacksStack(existing, stack))
+                    return stack;
+                limit -= existing.getCount();
+            }
+            if (limit <= 0)
+                return stack;
+            int moved = Math.min(limit, stack.getCount());
+            if (!simulate) {
+                ItemStack material = existing.isEmpty() ? ItemHandlerHelper.copyStackWithSize(stack, moved)
+                        : ItemHandlerHelper.copyStackWithSize(existing, existing.getCount() + moved);
+                setInventorySlotContents(materialSlot, material);
+                markDirty();
+            }
+            return moved == stack.getCount() ? ItemStack.EMPTY : ItemHandlerHelper.copyStackWithSize(stack, stack.getCount() - moved);
+        }
+
+        @Override
+        public ItemStack extractItem(int slot, int amount, boolean simulate) {
+            if (amount <= 0)
+                return ItemStack.EMPTY;
+            if (slot == materialSlot) {
+                if (side == EnumFacing.DOWN || TileSawbench.this.getStackInSlot(materialSlot).isEmpty())
+                    return ItemStack.EMPTY;
+                if (simulate)
+                    return ItemHandlerHelper.copyStackWithSize(TileSawbench.this.getStackInSlot(materialSlot),
+                            Math.min(amount, TileSawbench.this.getStackInSlot(materialSlot).getCount()));
+                return decrStackSize(materialSlot, amount);
+            }
+            if (side != EnumFacing.DOWN)
+                return ItemStack.EMPTY;
+            if (slot == resultSlot) {
+                if (!allowAutomation)
+                    return ItemStack.EMPTY;
+                return extractResult(amount, simulate);
+            }
+            return outputBuffer.extractItem(slot - 2, amount, simulate);
+        }
+
+        protected ItemStack extractResult(int amount, boolean simulate) {
+            ItemStack result = TileSawbench.this.getStackInSlot(resultSlot);
+            int perBatch = resultMultiple();
+            if (result.isEmpty() || perBatch <= 0)
+                return ItemStack.EMPTY;
+            if (!pendingMaterialUsage && !hasWholeResultBatch()) {
+                // Already paid for leftovers of a batch partly taken by a player
+                int n = Math.min(amount, result.getCount());
+                if (simulate)
+                    return ItemHandlerHelper.copyStackWithSize(result, n);
+                return decrStackSize(resultSlot, n);
+            }
+            if (amount < perBatch) {
+                // Hoppers take one item at a time, so take a whole batch and keep the
+                // rest in the output buffer. Hoppers try this slot first, so wait until
+                // the buffer has been emptied rather than cutting more material into it.
+                ItemStack rest = ItemHandlerHelper.copyStackWithSize(result, perBatch - amount);
+                if (availableBatches() < 1 || !isOutputBufferEmpty()
+                        || !ItemHandlerHelper.insertItemStacked(outputBuffer, rest, true).isEmpty())
+                    return ItemStack.EMPTY;
+                if (simulate)
+                    return ItemHandlerHelper.copyStackWithSize(result, amount);
+                ItemStack batch = takeBatches(1);
+                ItemHandlerHelper.insertItemStacked(outputBuffer, batch.splitStack(perBatch - amount), false);
+                return batch;
+            }
+            int batches = Math.min(availableBatches(), amount / perBatch);
+            if (simulate)
+                return batches > 0 ? ItemHandlerHelper.copyStackWithSize(result, batches * perBatch) : ItemStack.EMPTY;
+            return takeBatches(batches);
+        }
+
+        @Override
+        public int getSlotLimit(int slot) {
+            return 64;
+        }
+    }
+
     /**
      * Returns an array containing the indices of the slots that can be accessed by automation on the given side of this
      * block.
@@ -167,6 +515,16 @@ public class TileSawbench extends TileArchitectureInventory {
                 selectedSlots[page] = slot >= 0 && slot < pages[page].size() ? slot : 0;
             }
         pendingMaterialUsage = tc.getBoolean("PMU");
+        jobs.clear();
+        NBTTagList jobList = tc.getTagList("Jobs", Constants.NBT.TAG_COMPOUND);
+        for (int i = 0; i < jobList.tagCount(); i++) {
+            NBTTagCompound job = jobList.getCompoundTagAt(i);
+            Shape shape = Shape.forId(job.getInteger("Shape"));
+            if (shape != null)
+                jobs.add(new Job(shape, job.getInteger("Count")));
+        }
+        if (tc.hasKey("Buffer"))
+            outputBuffer.deserializeNBT(tc.getCompoundTag("Buffer"));
     }
 
     @Override
@@ -175,6 +533,17 @@ public class TileSawbench extends TileArchitectureInventory {
         tc.setInteger("Page", selectedPage);
         tc.setIntArray("Slots", selectedSlots);
         tc.setBoolean("PMU", pendingMaterialUsage);
+        if (!jobs.isEmpty()) {
+            NBTTagList jobList = new NBTTagList();
+            for (Job job : jobs) {
+                NBTTagCompound jt = new NBTTagCompound();
+                jt.setInteger("Shape", job.shape.id);
+                jt.setInteger("Count", job.count);
+                jobList.appendTag(jt);
+            }
+            tc.setTag("Jobs", jobList);
+        }
+        tc.setTag("Buffer", outputBuffer.serializeNBT());
         return tc;
     }
 
@@ -185,23 +554,31 @@ public class TileSawbench extends TileArchitectureInventory {
                 selectedSlots[selectedPage] = slot;
                 markDirty();
                 updateResultSlot();
-                sendTileEntityUpdate();
+                sendToContainerViewers();
             }
         }
     }
 
     void updateResultSlot() {
-        ItemStack oldResult = getStackInSlot(resultSlot).copy();
+        ItemStack oldResult = getStackInSlot(resultSlot);
         if (oldResult.isEmpty() || pendingMaterialUsage) {
-            ItemStack resultStack = makeResultStack();
-            if (!ItemStack.areItemStacksEqual(resultStack, oldResult))
-                inventory.setInventorySlotContents(resultSlot, resultStack);
-            pendingMaterialUsage = !resultStack.isEmpty();
+            ItemStack template = getResultTemplate(getSelectedShape());
+            if (!ItemStack.areItemStacksEqual(template, oldResult))
+                inventory.setInventorySlotContents(resultSlot, template.copy());
+            pendingMaterialUsage = !template.isEmpty();
         }
     }
 
     protected ItemStack makeResultStack() {
-        Shape resultShape = getSelectedShape();
+        return makeResultStack(getSelectedShape());
+    }
+
+    protected ItemStack makeResultStack(Shape resultShape) {
+        return getResultTemplate(resultShape).copy();
+    }
+
+    // Shared result stack for the current material, which must not be modified
+    protected ItemStack getResultTemplate(Shape resultShape) {
         if (resultShape != null) {
             ItemStack materialStack = getStackInSlot(materialSlot);
             if (!materialStack.isEmpty() && materialStack.getCount() >= resultShape.materialUsed) {
@@ -209,8 +586,10 @@ public class TileSawbench extends TileArchitectureInventory {
                 if (materialItem instanceof ItemBlock) {
                     Block materialBlock = Block.getBlockFromItem(materialItem);
                     if (isAcceptableMaterial(materialBlock)) {
-                        return resultShape.kind.newStack(resultShape, materialBlock,
-                                materialStack.getItemDamage(), resultShape.itemsProduced);
+                        int meta = materialStack.getItemDamage();
+                        TemplateKey key = new TemplateKey(materialBlock, meta, resultShape);
+                        return resultTemplates.computeIfAbsent(key, k -> resultShape.kind.newStack(resultShape,
+                                materialBlock, meta, resultShape.itemsProduced));
                     }
                 }
             }
@@ -219,6 +598,10 @@ public class TileSawbench extends TileArchitectureInventory {
     }
 
     protected boolean isAcceptableMaterial(Block block) {
+        return acceptableMaterials.computeIfAbsent(block, TileSawbench::checkAcceptableMaterial);
+    }
+
+    protected static boolean checkAcceptableMaterial(Block block) {
         String name = Block.REGISTRY.getNameForObject(block).toString();
         if (block == Blocks.GLASS || block == Blocks.STAINED_GLASS || block instanceof BlockSlab ||
                 name.startsWith("chisel:glass"))
@@ -227,6 +610,10 @@ public class TileSawbench extends TileArchitectureInventory {
     }
 
     public int materialMultiple() {
+        return materialMultiple(getSelectedShape());
+    }
+
+    public int materialMultiple(Shape shape) {
         int factor = 1;
         ItemStack materialStack = getStackInSlot(materialSlot);
         if (!materialStack.isEmpty()) {
@@ -234,7 +621,6 @@ public class TileSawbench extends TileArchitectureInventory {
             if (materialBlock instanceof BlockSlab)
                 factor = 2;
         }
-        Shape shape = getSelectedShape();
         if (shape != null)
             return factor * shape.materialUsed;
         return 0;
@@ -24,11 +24,15 @@
 
 package com.elytradev.architecture.common.tile;
 
+import com.elytradev.architecture.common.ArchitectureLog;
+import com.elytradev.architecture.common.block.BlockStateCache;
 import com.elytradev.architecture.common.helpers.Trans3;
 import com.elytradev.architecture.common.helpers.Utils;
 import com.elytradev.architecture.common.helpers.Vector3;
 import com.elytradev.architecture.common.item.ItemCladding;
+import com.elytradev.architecture.common.shape.CollisionBoxSet;
 import com.elytradev.architecture.common.shape.Shape;
+import io.netty.buffer.Unpooled;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.player.EntityPlayer;
@@ -36,22 +40,32 @@ import net.minecraft.init.Blocks;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.network.PacketBuffer;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.BlockRenderLayer;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.World;
+import net.minecraftforge.common.util.Constants;
 
 import static com.elytradev.architecture.common.block.BlockHelper.getNameForBlock;
 
 
 public class TileShape extends TileArchitecture {
 
+    public static boolean compactSync = true;
+
+    // Flags in the orientation byte of the compact sync encoding
+    protected static final int SYNC_HAS_OFFSET = 0x20, SYNC_HAS_SECONDARY = 0x40;
+
     public Shape shape;
     public IBlockState baseBlockState;
     public IBlockState secondaryBlockState;
     public int disabledConnections;
     private byte offsetX;
+    public volatile Object renderCache; // Client-side key of shared cached geometry, see ShapeRenderCache
+    private CollisionBoxSet collisionBoxes;
 
     public TileShape() {
         super();
@@ -98,6 +112,40 @@ public class TileShape extends TileArchitecture {
         //NO-OP
     }
 
+    // Shared collision boxes for this shape and orientation, or null if they depend on more than that
+    public CollisionBoxSet getCollisionBoxSet() {
+        if (shape == null || !shape.kind.hasStaticCollisionBoxes())
+            return null;
+        long key = (long) shape.id << 24 | (getSide() & 0xff) << 16 | (getTurn() & 0xff) << 8 | (offsetX & 0xff);
+        CollisionBoxSet set = collisionBoxes;
+        if (set == null || set.key != key)
+            collisionBoxes = set = CollisionBoxSet.get(this, key);
+        return set;
+    }
+
+    public void invalidateRenderCache() {
+        renderCache = null;
+    }
+
+    @Override
+    public void markBlockChanged() {
+        invalidateRenderCache();
+        super.markBlockChanged();
+    }
+
+    @Override
+    public void receiveUpdate(NBTTagCompound nbt) {
+        invalidateRenderCache();
+        super.receiveUpdate(nbt);
+    }
+
+    // Called on existing tiles when their chunk section is resent
+    @Override
+    public void handleUpdateTag(NBTTagCompound nbt) {
+        invalidateRenderCache();
+        super.handleUpdateTag(nbt);
+    }
+
     public boolean connectionIsEnabledGlobal(EnumFacing dir) {
         return (disabledConnections & (1 << dir.ordinal())) == 0;
     }
@@ -133,6 +181,12 @@ public class TileShape extends TileArchitecture {
         readShapeFromNBT(nbt);
     }
 
+    @Override
+    protected void setWorldCreate(World worldIn) {
+        // Set before readFromNBT so that palette indices can be resolved
+        setWorld(worldIn);
+    }
+
     protected void readShapeFromNBT(NBTTagCompound nbt) {
         shape = Shape.forId(nbt.getInteger("Shape"));
         baseBlockState = nbtGetBlockState(nbt, "BaseName", "BaseData");
@@ -146,14 +200,16 @@ public class TileShape extends TileArchitecture {
     }
 
     protected IBlockState nbtGetBlockState(NBTTagCompound nbt, String nameField, String dataField) {
-        String blockName = nbt.getString(nameField);
-        if (blockName != null && blockName.length() > 0) {
-            Block block = Block.getBlockFromName(blockName);
-            int data = nbt.getInteger(dataField);
-            IBlockState state = block.getStateFromMeta(data);
+        if (nbt.hasKey(nameField + "Index", Constants.NBT.TAG_INT)) {
+            IBlockState state = null;
+            if (world != null)
+                state = MaterialPalette.forWorld(world).getState(nbt.getInteger(nameField + "Index"));
+            if (state == null)
+                ArchitectureLog.warn("TileShape at {}: unresolved material palette index {}",
+                        pos, nbt.getInteger(nameField + "Index"));
             return state;
         }
-        return null;
+        return BlockStateCache.getState(nbt.getString(nameField), nbt.getInteger(dataField));
     }
 
     @Override
@@ -192,6 +248,58 @@ public class TileShape extends TileArchitecture {
         }
     }
 
+    @Override
+    protected NBTTagCompound writeSyncTag(NBTTagCompound nbt) {
+        if (!compactSync || shape == null)
+            return super.writeSyncTag(nbt);
+        writeTileEntityTag(nbt);
+        nbt.setByteArray("Sync", writeSyncBytes());
+        return nbt;
+    }
+
+    @Override
+    protected void readSyncTag(NBTTagCompound nbt) {
+        if (nbt.hasKey("Sync", Constants.NBT.TAG_BYTE_ARRAY)) {
+            readTileEntityTag(nbt);
+            readSyncBytes(nbt.getByteArray("Sync"));
+        } else
+            super.readSyncTag(nbt);
+    }
+
+    // Compact client sync encoding: shape id, block state ids, side/turn packed
+    // with presence flags into one byte, optional offset and a connection mask.
+    protected byte[] writeSyncBytes() {
+        PacketBuffer buf = new PacketBuffer(Unpooled.buffer(16));
+        buf.writeVarInt(shape.id);
+        buf.writeVarInt(Block.getStateId(baseBlockState));
+        int orientation = getSide() | getTurn() << 3;
+        if (offsetX != 0)
+            orientation |= SYNC_HAS_OFFSET;
+        if (secondaryBlockState != null)
+            orientation |= SYNC_HAS_SECONDARY;
+        buf.writeByte(orientation);
+        if (offsetX != 0)
+            buf.writeByte(offsetX);
+        if (secondaryBlockState != null)
+            buf.writeVarInt(Block.getStateId(secondaryBlockState));
+        buf.writeVarInt(disabledConnections);
+        byte[] bytes = new byte[buf.readableBytes()];
+        buf.readBytes(bytes);
+        return bytes;
+    }
+
+    protected void readSyncBytes(byte[] bytes) {
+        PacketBuffer buf = new PacketBuffer(Unpooled.wrappedBuffer(bytes));
+        shape = Shape.forId(buf.readVarInt());
+        baseBlockState = Block.getStateById(buf.readVarInt());
+        int orientation = buf.readUnsignedByte();
+        setSide(orientation & 0x7);
+        setTurn((orientation >> 3) & 0x3);
+        offsetX = (orientation & SYNC_HAS_OFFSET) != 0 ? buf.readByte() : 0;
+        secondaryBlockState = (orientation & SYNC_HAS_SECONDARY) != 0 ? Block.getStateById(buf.readVarInt()) : null;
+        disabledConnections = buf.readVarInt();
+    }
+
     public void onChiselUse(EntityPlayer player, EnumFacing face, float hitX, float hitY, float hitZ) {
         shape.kind.onChiselUse(this, player, face, hitVec(hitX, hitY, hitZ));
     }
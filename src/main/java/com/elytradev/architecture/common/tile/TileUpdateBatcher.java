@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.common.tile;
+
+import com.elytradev.architecture.common.ArchitectureLog;
+import com.elytradev.architecture.common.network.TileUpdatesMessage;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.network.Packet;
+import net.minecraft.server.management.PlayerChunkMapEntry;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects tile entities that need resending to clients and sends them once per
+ * server tick, as one batched message per chunk to the players watching that chunk.
+ * Only used from the server thread.
+ */
+public class TileUpdateBatcher {
+
+    public static boolean enabled = true;
+
+    // Keeps each message well under the client-bound custom payload limit
+    public static int maxTilesPerMessage = 256;
+
+    // Log the busiest chunks every statsInterval ticks
+    public static boolean logStats = false;
+    public static int statsInterval = 1200;
+    public static int statsTopChunks = 10;
+
+    protected static final Map<World, Map<Long, Set<TileArchitecture>>> pending = new IdentityHashMap<>();
+
+    // Per chunk: updates requested, packets sent
+    protected static final Map<World, Map<Long, int[]>> stats = new IdentityHashMap<>();
+    protected static int statsTicks;
+
+    public static void schedule(TileArchitecture te) {
+        World world = te.getWorld();
+        BlockPos pos = te.getPos();
+        long chunk = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+        pending.computeIfAbsent(world, w -> new HashMap<>())
+                .computeIfAbsent(chunk, c -> new LinkedHashSet<>())
+                .add(te);
+        countUpdate(world, chunk, 1, 0);
+    }
+
+    public static void cancel(TileArchitecture te) {
+        Map<Long, Set<TileArchitecture>> chunks = pending.get(te.getWorld());
+        if (chunks != null) {
+            BlockPos pos = te.getPos();
+            Set<TileArchitecture> tiles = chunks.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+            if (tiles != null)
+                tiles.remove(te);
+        }
+    }
+
+    public static void countUpdate(World world, BlockPos pos, int updates, int packets) {
+        countUpdate(world, ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4), updates, packets);
+    }
+
+    protected static void countUpdate(World world, long chunk, int updates, int packets) {
+        if (!logStats)
+            return;
+        int[] counts = stats.computeIfAbsent(world, w -> new HashMap<>())
+                .computeIfAbsent(chunk, c -> new int[2]);
+        counts[0] += updates;
+        counts[1] += packets;
+    }
+
+    public static void flush() {
+        if (logStats && ++statsTicks >= statsInterval) {
+            dumpStats();
+            statsTicks = 0;
+        }
+        if (pending.isEmpty())
+            return;
+        for (Map.Entry<World, Map<Long, Set<TileArchitecture>>> worldEntry : pending.entrySet()) {
+            WorldServer world = (WorldServer) worldEntry.getKey();
+            for (Map.Entry<Long, Set<TileArchitecture>> chunkEntry : worldEntry.getValue().entrySet()) {
+                long chunk = chunkEntry.getKey();
+                PlayerChunkMapEntry watchers = world.getPlayerChunkMap().getEntry((int) chunk, (int) (chunk >> 32));
+                // Chunks nobody is watching get the current state when they are sent
+                if (watchers != null && watchers.isSentToPlayers())
+                    countUpdate(world, chunk, 0, sendChunkUpdates(world, watchers, chunkEntry.getValue()));
+            }
+        }
+        pending.clear();
+    }
+
+    // Returns the number of packets sent
+    protected static int sendChunkUpdates(WorldServer world, PlayerChunkMapEntry watchers, Set<TileArchitecture> tiles) {
+        Iterator<TileArchitecture> iter = tiles.iterator();
+        while (iter.hasNext()) {
+            TileArchitecture te = iter.next();
+            if (te.isInvalid() || world.getTileEntity(te.getPos()) != te)
+                iter.remove();
+        }
+        if (tiles.size() == 1) {
+            Packet<?> packet = tiles.iterator().next().getUpdatePacket();
+            if (packet == null)
+                return 0;
+            watchers.sendPacket(packet);
+            return 1;
+        }
+        int packets = 0;
+        NBTTagList list = new NBTTagList();
+        for (TileArchitecture te : tiles) {
+            NBTTagCompound nbt = te.getBatchedUpdateTag();
+            if (nbt == null)
+                continue;
+            list.appendTag(nbt);
+            if (list.tagCount() >= maxTilesPerMessage) {
+                watchers.sendPacket(new TileUpdatesMessage(list).toClientboundVanillaPacket());
+                list = new NBTTagList();
+                packets++;
+            }
+        }
+        if (list.tagCount() > 0) {
+            watchers.sendPacket(new TileUpdatesMessage(list).toClientboundVanillaPacket());
+            packets++;
+        }
+        return packets;
+    }
+
+    public static void discard(World world) {
+        pending.remove(world);
+        stats.remove(world);
+    }
+
+    public static void dumpStats() {
+        for (Map.Entry<World, Map<Long, int[]>> worldEntry : stats.entrySet()) {
+            List<Map.Entry<Long, int[]>> chunks = new ArrayList<>(worldEntry.getValue().entrySet());
+            chunks.sort((a, b) -> Integer.compare(b.getValue()[0], a.getValue()[0]));
+            ArchitectureLog.info("Tile updates in dimension {} over {} ticks, {} chunks:",
+                    worldEntry.getKey().provider.getDimension(), statsTicks, chunks.size());
+            for (Map.Entry<Long, int[]> chunk : chunks.subList(0, Math.min(statsTopChunks, chunks.size()))) {
+                long key = chunk.getKey();
+                int[] counts = chunk.getValue();
+                ArchitectureLog.info("  chunk [{}, {}]: {} updates, {} packets",
+                        (int) key, (int) (key >> 32), counts[0], counts[1]);
+            }
+        }
+        stats.clear();
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.client.render.model;
+
+import net.minecraft.util.ResourceLocation;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+public class BinaryModelFormatTest {
+
+    static final File SHAPE_MODELS = new File("src/main/resources/assets/architecturecraft/models/shape");
+
+    @Test
+    public void readsPackedLayout() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(BinaryModelFormat.MAGIC);
+        out.writeInt(BinaryModelFormat.VERSION);
+        writeDoubles(out, 0, 0, 0, 1, 0.5, 1);
+        out.writeInt(1);
+        writeDoubles(out, 0, 0, 0, 1, 0.5, 1);
+        out.writeInt(1);
+        out.writeByte(2);
+        out.writeInt(3);
+        float[] vertices = {
+                0, 0, 0, 0, 1, 0, 0, 0,
+                1, 0, 0, 0, 1, 0, 1, 0,
+                0, 0, 1, 0, 1, 0, 0, 1};
+        for (float f : vertices)
+            out.writeFloat(f);
+        out.writeFloat(0);
+        out.writeFloat(1);
+        out.writeFloat(0);
+        out.writeInt(3);
+        out.writeShort(0);
+        out.writeShort(2);
+        out.writeShort(1);
+
+        OBJSONModel model = read(bytes.toByteArray());
+        assertArrayEquals(new double[]{0, 0, 0, 1, 0.5, 1}, model.bounds, 0);
+        assertEquals(1, model.boxes.length);
+        assertArrayEquals(new double[]{0, 0, 0, 1, 0.5, 1}, model.boxes[0], 0);
+        assertEquals(1, model.faces.length);
+        OBJSONModel.Face face = model.faces[0];
+        assertEquals(2, face.texture);
+        assertEquals(3, face.getVertexCount());
+        assertEquals(1, face.getTriangleCount());
+        assertArrayEquals(vertices, face.data, 0);
+        assertArrayEquals(new int[]{0, 2, 1}, face.indices);
+        assertEquals(1, face.normal.y, 0);
+    }
+
+    @Test
+    public void indicesAreUnsigned() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(BinaryModelFormat.MAGIC);
+        out.writeInt(BinaryModelFormat.VERSION);
+        writeDoubles(out, 0, 0, 0, 1, 1, 1);
+        out.writeInt(0);
+        out.writeInt(1);
+        out.writeByte(0);
+        out.writeInt(0);
+        out.writeFloat(0);
+        out.writeFloat(0);
+        out.writeFloat(1);
+        out.writeInt(3);
+        out.writeShort(40000);
+        out.writeShort(0xffff);
+        out.writeShort(1);
+
+        OBJSONModel model = read(bytes.toByteArray());
+        assertArrayEquals(new int[]{40000, 0xffff, 1}, model.faces[0].indices);
+    }
+
+    @Test
+    public void rejectsOtherData() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x7b0a2020); // Start of a json file
+        out.writeInt(BinaryModelFormat.VERSION);
+        assertRejected(bytes.toByteArray());
+
+        bytes.reset();
+        out.writeInt(BinaryModelFormat.MAGIC);
+        out.writeInt(BinaryModelFormat.VERSION + 1);
+        assertRejected(bytes.toByteArray());
+    }
+
+    // Every packed model built by compileShapeModels must read back as the json it came from
+    @Test
+    public void packedModelsMatchJson() {
+        File[] sources = SHAPE_MODELS.listFiles((dir, name) -> name.endsWith(BinaryModelFormat.JSON_EXTENSION));
+        assumeTrue("Shape model sources not found", sources != null && sources.length > 0);
+        int compared = 0;
+        for (File source : sources) {
+            ResourceLocation location = new ResourceLocation("architecturecraft", "models/shape/" + source.getName());
+            OBJSONModel packed = BinaryModelFormat.fromResource(location);
+            if (packed == null)
+                continue;
+            assertSameModel(source.getName(), OBJSONModel.fromResource(location), packed);
+            compared++;
+        }
+        assumeTrue("No packed models on the classpath; compileShapeModels has not run", compared > 0);
+        assertEquals("Some models have no packed form", sources.length, compared);
+    }
+
+    @Test
+    public void binaryLocationReplacesExtension() {
+        ResourceLocation location = BinaryModelFormat.binaryLocation(
+                new ResourceLocation("architecturecraft", "models/shape/roof_tile.objson"));
+        assertNotNull(location);
+        assertEquals("models/shape/roof_tile.objbin", location.getPath());
+        assertNull(BinaryModelFormat.binaryLocation(
+                new ResourceLocation("architecturecraft", "models/shape/roof_tile.json")));
+    }
+
+    protected static void assertSameModel(String name, OBJSONModel json, OBJSONModel packed) {
+        assertArrayEquals(name + " bounds", json.bounds, packed.bounds, 0);
+        int numBoxes = json.boxes != null ? json.boxes.length : 0;
+        assertEquals(name + " boxes", numBoxes, packed.boxes.length);
+        for (int i = 0; i < numBoxes; i++)
+            assertArrayEquals(name + " box " + i, json.boxes[i], packed.boxes[i], 0);
+        assertEquals(name + " faces", json.faces.length, packed.faces.length);
+        for (int i = 0; i < json.faces.length; i++) {
+            OBJSONModel.Face a = json.faces[i], b = packed.faces[i];
+            String face = name + " face " + i;
+            assertEquals(face + " texture", a.texture, b.texture);
+            assertArrayEquals(face + " vertices", a.data, b.data, 0);
+            assertArrayEquals(face + " indices", a.indices, b.indices);
+            assertEquals(face + " normal x", a.normal.x, b.normal.x, 1e-6);
+            assertEquals(face + " normal y", a.normal.y, b.normal.y, 1e-6);
+            assertEquals(face + " normal z", a.normal.z, b.normal.z, 1e-6);
+        }
+    }
+
+    protected static void assertRejected(byte[] data) {
+        try {
+            read(data);
+            fail("Read data that is not a packed model");
+        } catch (IOException expected) {
+        }
+    }
+
+    protected static OBJSONModel read(byte[] data) throws IOException {
+        return BinaryModelFormat.read(new DataInputStream(new ByteArrayInputStream(data)));
+    }
+
+    protected static void writeDoubles(DataOutputStream out, double... values) throws IOException {
+        for (double value : values)
+            out.writeDouble(value);
+    }
+
+}
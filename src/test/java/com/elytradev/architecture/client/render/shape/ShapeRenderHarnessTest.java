@@ -0,0 +1,168 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.client.render.shape;
+
+import com.elytradev.architecture.client.render.target.RenderTargetRecorder;
+import com.elytradev.architecture.client.render.texture.ITexture;
+import com.elytradev.architecture.client.render.texture.TextureBase;
+import com.elytradev.architecture.common.ArchitectureMod;
+import com.elytradev.architecture.common.helpers.Trans3;
+import com.elytradev.architecture.common.proxy.CommonProxy;
+import com.elytradev.architecture.common.shape.Shape;
+import com.elytradev.architecture.common.shape.ShapeKind;
+import com.elytradev.architecture.common.tile.TileShape;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.BlockPos;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Renders every shape in every orientation, as an item and as a block with no neighbours,
+ * through a recording render target without a running game. Fails if a render path
+ * captures the thread's stack trace, or if a render allocates more than its budget once
+ * models and geometry tables have been cached.
+ */
+public class ShapeRenderHarnessTest {
+
+    // Allowance for transforms and renderer objects built per render, plus a little per
+    // triangle. Per-vertex allocation or a stack trace capture goes well over this.
+    static final long BASE_ALLOCATION_BUDGET = 16 * 1024;
+    static final long ALLOCATION_PER_TRIANGLE = 32;
+
+    static ITexture[] textures;
+
+    @BeforeClass
+    public static void setUp() {
+        ArchitectureMod.PROXY = new CommonProxy();
+        ITexture base = TextureBase.fromImage(new ResourceLocation("architecturecraft", "test/base"));
+        ITexture secondary = TextureBase.fromImage(new ResourceLocation("architecturecraft", "test/secondary"));
+        textures = new ITexture[]{base, base.projected(), secondary, secondary.projected()};
+    }
+
+    @Test
+    public void renderEveryShape() throws Throwable {
+        assumeTrue("Thread allocation counters are not available", allocationCounter() != null
+                && allocationCounter().isThreadAllocatedMemorySupported());
+        GuardedThread thread = new GuardedThread(this::renderAllShapes);
+        thread.start();
+        thread.join();
+        if (thread.failure != null)
+            throw thread.failure;
+        assertTrue("Render paths captured stack traces:\n" + join(thread.captures), thread.captures.isEmpty());
+    }
+
+    protected void renderAllShapes() {
+        List<String> overBudget = new ArrayList<>();
+        RecordingTarget target = new RecordingTarget();
+        for (Shape shape : Shape.values) {
+            TileShape te = new TileShape(shape, null);
+            for (int mode = 0; mode < 2; mode++) {
+                target.setRenderingItem(mode == 0);
+                for (int side = 0; side < 6; side++) {
+                    for (int turn = 0; turn < 4; turn++) {
+                        Trans3 t = Trans3.blockCenterSideTurn(side, turn);
+                        // Once to fill the model and geometry caches, then measured
+                        render(te, t, target);
+                        long bytes = render(te, t, target);
+                        long triangles = target.getTriangleCount();
+                        if (!(shape.kind instanceof ShapeKind.Cladding))
+                            assertTrue(shape + " rendered nothing", triangles > 0);
+                        long budget = BASE_ALLOCATION_BUDGET + ALLOCATION_PER_TRIANGLE * triangles;
+                        if (bytes > budget)
+                            overBudget.add(String.format("%s side %d turn %d%s: %d bytes for %d triangles, budget %d",
+                                    shape, side, turn, mode == 0 ? " as item" : "", bytes, triangles, budget));
+                    }
+                }
+            }
+        }
+        assertTrue("Renders over their allocation budget:\n" + join(overBudget), overBudget.isEmpty());
+    }
+
+    // Returns the bytes allocated by the render
+    protected long render(TileShape te, Trans3 t, RecordingTarget target) {
+        target.reset();
+        long id = Thread.currentThread().getId();
+        long before = allocationCounter().getThreadAllocatedBytes(id);
+        te.shape.kind.renderShape(te, textures, target, t, true, true, 0xffffff, 0xffffff);
+        long after = allocationCounter().getThreadAllocatedBytes(id);
+        target.finish();
+        return after - before;
+    }
+
+    protected static com.sun.management.ThreadMXBean allocationCounter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        return bean instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) bean : null;
+    }
+
+    protected static String join(List<String> lines) {
+        StringBuilder result = new StringBuilder();
+        for (String line : lines)
+            result.append("  ").append(line).append('\n');
+        return result.toString();
+    }
+
+    // Reuses its buffer between renders so that only the renderer's own allocation is measured
+    protected static class RecordingTarget extends RenderTargetRecorder {
+
+        public RecordingTarget() {
+            super(BlockPos.ORIGIN);
+        }
+
+        public void reset() {
+            size = 0;
+            triangleCount = 0;
+        }
+
+    }
+
+    // Records every request for its own stack trace, which is how the render path used to
+    // detect item rendering
+    protected static class GuardedThread extends Thread {
+
+        final List<String> captures = new ArrayList<>();
+        Throwable failure;
+
+        GuardedThread(Runnable body) {
+            super(body, "Shape render harness");
+            setUncaughtExceptionHandler((thread, e) -> failure = e);
+        }
+
+        @Override
+        public StackTraceElement[] getStackTrace() {
+            StackTraceElement[] trace = super.getStackTrace();
+            captures.add(trace.length > 2 ? trace[2].toString() : "unknown caller");
+            return trace;
+        }
+
+    }
+
+}
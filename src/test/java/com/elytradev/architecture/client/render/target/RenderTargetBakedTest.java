@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.client.render.target;
+
+import net.minecraft.client.renderer.vertex.VertexFormatElement;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the direct vertex writer against the element-by-element ByteBuffer encoding of
+ * theFormat that it replaced.
+ */
+public class RenderTargetBakedTest {
+
+    @Test
+    public void formatIsSevenIntsPerVertex() {
+        RenderTargetBaked target = new RenderTargetBaked();
+        assertEquals(28, target.bytesPerVertex);
+        assertEquals(7, target.intsPerVertex);
+    }
+
+    @Test
+    public void packsVerticesLikeElementEncoding() {
+        Random random = new Random(42);
+        RenderTargetBaked target = new RenderTargetBaked();
+        for (int n = 0; n < 1000; n++) {
+            target.beginQuad();
+            int[] expected = new int[target.intsPerVertex * 4];
+            for (int i = 0; i < 4; i++) {
+                target.setColor(random.nextFloat(), random.nextFloat(), random.nextFloat(), random.nextFloat());
+                target.setNormal(random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1);
+                double x = random.nextDouble() * 32 - 16, y = random.nextDouble() * 256, z = random.nextDouble() * 32 - 16;
+                double u = random.nextDouble(), v = random.nextDouble();
+                target.rawAddVertex(x, y, z, u, v);
+                encode(target, x, y, z, u, v, expected, i * target.intsPerVertex);
+            }
+            assertArrayEquals(expected, target.data);
+        }
+    }
+
+    @Test
+    public void packsExtremeValues() {
+        RenderTargetBaked target = new RenderTargetBaked();
+        target.beginQuad();
+        int[] expected = new int[target.intsPerVertex * 4];
+        float[][] colours = {{0, 0, 0, 0}, {1, 1, 1, 1}, {1, 0, 0.5f, 1}, {0.999f, 0.001f, 0.5f, 0}};
+        double[][] normals = {{0, -1, 0}, {0, 1, 0}, {-1, 0, 0}, {0.57735, -0.57735, 0.57735}};
+        for (int i = 0; i < 4; i++) {
+            float[] c = colours[i];
+            double[] n = normals[i];
+            target.setColor(c[0], c[1], c[2], c[3]);
+            target.setNormal(n[0], n[1], n[2]);
+            target.rawAddVertex(-i, i, 0.5, 1, 0);
+            encode(target, -i, i, 0.5, 1, 0, expected, i * target.intsPerVertex);
+        }
+        assertArrayEquals(expected, target.data);
+    }
+
+    @Test
+    public void prescrambleReversesVertexColours() {
+        RenderTargetBaked target = new RenderTargetBaked();
+        int[] data = new int[target.intsPerVertex * 4];
+        for (int i = 0; i < data.length; i++)
+            data[i] = i * 0x01010101;
+        int[] expected = data.clone();
+        for (int i = 0; i < 4; i++)
+            expected[i * target.intsPerVertex + 3] = data[(3 - i) * target.intsPerVertex + 3];
+        target.prescrambleVertexColors(data);
+        assertArrayEquals(expected, data);
+    }
+
+    // The ByteBuffer encoding previously used by rawAddVertex
+    protected static void encode(RenderTargetBaked target, double x, double y, double z, double u, double v,
+                                 int[] out, int offset) {
+        ByteBuffer buf = ByteBuffer.allocate(target.bytesPerVertex);
+        for (VertexFormatElement e : target.format.getElements()) {
+            switch (e.getUsage()) {
+                case POSITION:
+                    putElement(buf, e, x, y, z);
+                    break;
+                case COLOR:
+                    putElement(buf, e, target.alpha, target.blue, target.green, target.red);
+                    break;
+                case NORMAL:
+                    putElement(buf, e, target.normalX, target.normalY, target.normalZ);
+                    break;
+                case UV:
+                    putElement(buf, e, u, v);
+                    break;
+                default:
+                    putElement(buf, e);
+            }
+        }
+        buf.flip();
+        buf.asIntBuffer().get(out, offset, target.intsPerVertex);
+    }
+
+    protected static void putElement(ByteBuffer buf, VertexFormatElement e, Number... ns) {
+        for (int i = 0; i < e.getElementCount(); i++) {
+            Number n = i < ns.length ? ns[i] : 0;
+            switch (e.getType()) {
+                case BYTE:
+                    buf.put((byte) (n.floatValue() * 0x7f));
+                    break;
+                case UBYTE:
+                    buf.put((byte) (n.floatValue() * 0xff));
+                    break;
+                case FLOAT:
+                    buf.putFloat(n.floatValue());
+                    break;
+                default:
+                    throw new AssertionError("Unexpected element type " + e.getType());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,180 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.common.tile;
+
+import com.elytradev.architecture.common.shape.Shape;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TileSawbenchBatchTest {
+
+    private boolean oldAllowAutomation;
+    private TileSawbench te;
+
+    @BeforeClass
+    public static void setUpClass() {
+        Bootstrap.register();
+        // The shape block isn't registered here, so stand in for its stacks
+        TileSawbench.resultTemplates.put(new TileSawbench.TemplateKey(Blocks.STONE, 0, Shape.ROOF_TILE),
+                new ItemStack(Blocks.STONE_SLAB, Shape.ROOF_TILE.itemsProduced));
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        TileSawbench.clearResultTemplates();
+    }
+
+    @Before
+    public void setUp() {
+        oldAllowAutomation = TileSawbench.allowAutomation;
+        TileSawbench.allowAutomation = true;
+        te = new TileSawbench();
+        te.selectedPage = 0;
+        te.selectedSlots[0] = 0;
+        assertSame(Shape.ROOF_TILE, te.getSelectedShape());
+        te.setInventorySlotContents(TileSawbench.materialSlot, new ItemStack(Blocks.STONE, 64));
+    }
+
+    @After
+    public void tearDown() {
+        TileSawbench.allowAutomation = oldAllowAutomation;
+    }
+
+    @Test
+    public void pendingBatchIsCountedOnce() {
+        assertTrue(te.pendingMaterialUsage);
+        assertEquals(2, result().getCount());
+        assertEquals(64, material().getCount());
+        assertEquals(64, te.availableBatches());
+    }
+
+    @Test
+    public void takeBatchesUsesOneMaterialPerBatch() {
+        ItemStack taken = te.takeBatches(10);
+        assertEquals(20, taken.getCount());
+        assertEquals(54, material().getCount());
+        assertTrue(te.pendingMaterialUsage);
+        assertEquals(2, result().getCount());
+        assertEquals(54, te.availableBatches());
+    }
+
+    @Test
+    public void takeBatchesCanEmptyTheMaterialSlot() {
+        ItemStack taken = te.takeBatches(64);
+        assertEquals(128, taken.getCount());
+        assertTrue(material().isEmpty());
+        assertTrue(result().isEmpty());
+        assertFalse(te.pendingMaterialUsage);
+        assertEquals(0, te.availableBatches());
+    }
+
+    @Test
+    public void refusesMoreBatchesThanAvailable() {
+        assertTrue(te.takeBatches(65).isEmpty());
+        assertTrue(te.takeBatches(0).isEmpty());
+        assertEquals(64, material().getCount());
+        assertEquals(2, result().getCount());
+    }
+
+    @Test
+    public void partialResultStopsBatches() {
+        ItemStack one = te.decrStackSize(TileSawbench.resultSlot, 1);
+        assertEquals(1, one.getCount());
+        assertEquals(63, material().getCount());
+        assertFalse(te.pendingMaterialUsage);
+        assertEquals(0, te.availableBatches());
+        assertTrue(te.takeBatches(1).isEmpty());
+    }
+
+    @Test
+    public void automationTakesWholeBatches() {
+        IItemHandler handler = bottom();
+        assertEquals(10, handler.extractItem(TileSawbench.resultSlot, 11, true).getCount());
+        assertEquals(64, material().getCount());
+        assertEquals(10, handler.extractItem(TileSawbench.resultSlot, 11, false).getCount());
+        assertEquals(59, material().getCount());
+        assertEquals(59, te.availableBatches());
+    }
+
+    @Test
+    public void automationBuffersRestOfBatch() {
+        IItemHandler handler = bottom();
+        assertEquals(1, handler.extractItem(TileSawbench.resultSlot, 1, false).getCount());
+        assertEquals(63, material().getCount());
+        assertFalse(te.isOutputBufferEmpty());
+        // No more material is cut until the buffer has been emptied
+        assertTrue(handler.extractItem(TileSawbench.resultSlot, 1, false).isEmpty());
+        assertEquals(1, handler.extractItem(2, 1, false).getCount());
+        assertTrue(te.isOutputBufferEmpty());
+        assertEquals(1, handler.extractItem(TileSawbench.resultSlot, 1, false).getCount());
+        assertEquals(62, material().getCount());
+    }
+
+    @Test
+    public void automationTakesLeftoversOfPartialBatch() {
+        te.decrStackSize(TileSawbench.resultSlot, 1);
+        IItemHandler handler = bottom();
+        assertEquals(1, handler.extractItem(TileSawbench.resultSlot, 64, false).getCount());
+        assertEquals(63, material().getCount());
+        assertTrue(te.pendingMaterialUsage);
+        assertEquals(63, te.availableBatches());
+    }
+
+    @Test
+    public void jobCraftingKeepsPendingMaterial() {
+        te.setInventorySlotContents(TileSawbench.materialSlot, new ItemStack(Blocks.STONE, 2));
+        assertTrue(te.craftIntoBuffer(Shape.ROOF_TILE));
+        assertEquals(1, material().getCount());
+        // The last block pays for the result slot
+        assertFalse(te.craftIntoBuffer(Shape.ROOF_TILE));
+        assertEquals(1, te.availableBatches());
+        assertEquals(2, te.outputBuffer.getStackInSlot(0).getCount());
+    }
+
+    private ItemStack material() {
+        return te.getStackInSlot(TileSawbench.materialSlot);
+    }
+
+    private ItemStack result() {
+        return te.getStackInSlot(TileSawbench.resultSlot);
+    }
+
+    private IItemHandler bottom() {
+        return te.bottomItemHandler;
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.common.tile;
+
+import com.elytradev.architecture.common.shape.Shape;
+import net.minecraft.block.BlockStairs;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.util.EnumFacing;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TileShapeSyncTest {
+
+    @BeforeClass
+    public static void setUp() {
+        Bootstrap.register();
+    }
+
+    @Test
+    public void roundTripsEveryField() {
+        TileShape te = new TileShape(Shape.WINDOW_FRAME, Blocks.STONEBRICK.getStateFromMeta(2));
+        te.secondaryBlockState = Blocks.STAINED_GLASS.getStateFromMeta(14);
+        te.setSide(5);
+        te.setTurn(3);
+        te.setOffsetX(-0.5);
+        te.disabledConnections = 0x2d;
+        assertSameState(te, roundTrip(te));
+    }
+
+    @Test
+    public void roundTripsWithoutOptionalFields() {
+        TileShape te = new TileShape(Shape.ROOF_TILE, Blocks.PLANKS.getDefaultState());
+        TileShape result = roundTrip(te);
+        assertSameState(te, result);
+        assertNull(result.secondaryBlockState);
+        assertEquals(0, result.getOffsetX(), 0);
+    }
+
+    @Test
+    public void roundTripsAllOrientations() {
+        for (int side = 0; side < 6; side++)
+            for (int turn = 0; turn < 4; turn++) {
+                TileShape te = new TileShape(Shape.ROOF_OUTER_CORNER,
+                        Blocks.OAK_STAIRS.getDefaultState().withProperty(BlockStairs.FACING, EnumFacing.SOUTH));
+                te.setSide(side);
+                te.setTurn(turn);
+                te.setOffsetX(0.25);
+                assertSameState(te, roundTrip(te));
+            }
+    }
+
+    @Test
+    public void roundTripsEveryShape() {
+        for (Shape shape : Shape.values) {
+            TileShape te = new TileShape(shape, Blocks.STONE.getDefaultState());
+            assertSameState(te, roundTrip(te));
+        }
+    }
+
+    @Test
+    public void isCompact() {
+        TileShape te = new TileShape(Shape.ROOF_TILE, Blocks.PLANKS.getDefaultState());
+        // Shape id, state id and connection mask as varints, plus the orientation byte
+        assertTrue(te.writeSyncBytes().length <= 6);
+        te.secondaryBlockState = Blocks.GLASS.getDefaultState();
+        te.setOffsetX(0.5);
+        te.disabledConnections = 0x3f;
+        assertTrue(te.writeSyncBytes().length <= 9);
+    }
+
+    protected static TileShape roundTrip(TileShape te) {
+        TileShape result = new TileShape(Shape.ROOF_RIDGE, Blocks.GOLD_BLOCK.getDefaultState());
+        result.secondaryBlockState = Blocks.GLASS.getDefaultState();
+        result.setSide(1);
+        result.setTurn(1);
+        result.setOffsetX(0.25);
+        result.disabledConnections = 1;
+        result.readSyncBytes(te.writeSyncBytes());
+        return result;
+    }
+
+    protected static void assertSameState(TileShape expected, TileShape actual) {
+        assertSame(expected.shape, actual.shape);
+        assertSame(expected.baseBlockState, actual.baseBlockState);
+        assertSame(expected.secondaryBlockState, actual.secondaryBlockState);
+        assertEquals(expected.getSide(), actual.getSide());
+        assertEquals(expected.getTurn(), actual.getTurn());
+        assertEquals(expected.getOffsetX(), actual.getOffsetX(), 0);
+        assertEquals(expected.disabledConnections, actual.disabledConnections);
+    }
+
+}